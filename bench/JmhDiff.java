@@ -0,0 +1,95 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сравнивает два JSON-результата JMH (-rf json). Замеры сопоставляются по имени бенчмарка,
+ * режиму и параметрам. Разница считается значимой, только если интервалы score ± error
+ * не пересекаются; для avgt/sample/ss меньше - лучше, для thrpt - больше.
+ * Запуск: bench/jmh-diff.sh было.json стало.json
+ */
+public class JmhDiff {
+
+    record Score(double score, double error, String unit, String mode) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Использование: JmhDiff было.json стало.json");
+            System.exit(2);
+        }
+        Map<String, Score> before = read(new File(args[0]));
+        Map<String, Score> after = read(new File(args[1]));
+
+        int width = 20;
+        for (String key : after.keySet()) {
+            width = Math.max(width, key.length());
+        }
+        String row = "%-" + width + "s %14s %14s %9s  %s%n";
+        System.out.printf(row, "Бенчмарк", "Было", "Стало", "Δ", "");
+
+        int better = 0;
+        int worse = 0;
+        for (Map.Entry<String, Score> entry : after.entrySet()) {
+            Score now = entry.getValue();
+            Score then = before.get(entry.getKey());
+            if (then == null) {
+                System.out.printf(row, entry.getKey(), "-", format(now), "", "новый");
+                continue;
+            }
+            double change = (now.score() - then.score()) / then.score() * 100;
+            boolean significant = Math.abs(now.score() - then.score()) > now.error() + then.error();
+            boolean lowerIsBetter = !now.mode().equals("thrpt");
+            String verdict = "в пределах погрешности";
+            if (significant) {
+                boolean improved = lowerIsBetter == now.score() < then.score();
+                verdict = improved ? "лучше" : "ХУЖЕ";
+                if (improved) {
+                    better++;
+                } else {
+                    worse++;
+                }
+            }
+            System.out.printf(row, entry.getKey(), format(then), format(now),
+                    String.format("%+.1f%%", change), verdict);
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                System.out.printf(row, key, format(before.get(key)), "-", "", "удалён");
+            }
+        }
+        System.out.printf("%nЛучше: %d, хуже: %d%n", better, worse);
+    }
+
+    private static Map<String, Score> read(File file) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String name = result.get("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            List<String> params = new ArrayList<>();
+            JsonNode paramsNode = result.get("params");
+            if (paramsNode != null) {
+                for (Iterator<Map.Entry<String, JsonNode>> it = paramsNode.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> param = it.next();
+                    params.add(param.getKey() + "=" + param.getValue().asText());
+                }
+            }
+            String key = name + (params.isEmpty() ? "" : " " + String.join(",", params));
+            JsonNode metric = result.get("primaryMetric");
+            double error = metric.get("scoreError").asDouble();
+            scores.put(key, new Score(metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asText(), result.get("mode").asText()));
+        }
+        return scores;
+    }
+
+    private static String format(Score score) {
+        return String.format("%.3f %s", score.score(), score.unit());
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест с замкнутым циклом: N клиентов непрерывно запрашивают страницы,
+ * после прогрева считаются пропускная способность и перцентили задержки.
+ * Запуск без сборки: java bench/LoadBenchmark.java --url http://localhost:8080/ --concurrency 200
+ *
+ * Параметры: --url (можно несколько, запросы чередуются), --concurrency, --duration, --warmup (секунды),
+ * --cookie "JSESSIONID=...", --label (имя прогона в отчёте), --out (CSV, строки дописываются).
+ */
+public class LoadBenchmark {
+
+    private record Result(long[] latenciesNanos, long errors) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, List<String>> options = parse(args);
+        List<String> urls = options.getOrDefault("url", List.of("http://localhost:8080/"));
+        int concurrency = Integer.parseInt(option(options, "concurrency", "200"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(options, "duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(options, "warmup", "10")));
+        String cookie = option(options, "cookie", null);
+        String label = option(options, "label", "run");
+        String out = option(options, "out", null);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        List<HttpRequest> requests = urls.stream().map(url -> {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET();
+            if (cookie != null) {
+                builder.header("Cookie", cookie);
+            }
+            return builder.build();
+        }).toList();
+
+        System.out.printf("%s: %d клиентов, прогрев %d с, замер %d с, %s%n",
+                label, concurrency, warmup.toSeconds(), duration.toSeconds(), urls);
+        run(client, requests, concurrency, warmup);
+        long started = System.nanoTime();
+        Result result = run(client, requests, concurrency, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] latencies = result.latenciesNanos();
+        Arrays.sort(latencies);
+        double throughput = latencies.length / seconds;
+        String report = String.format("%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d",
+                label, concurrency, latencies.length, throughput,
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.95)),
+                millis(percentile(latencies, 0.99)), millis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]),
+                result.errors());
+        System.out.println("label,concurrency,requests,rps,p50_ms,p95_ms,p99_ms,max_ms,errors");
+        System.out.println(report);
+
+        if (out != null) {
+            Path path = Path.of(out);
+            if (Files.notExists(path)) {
+                Files.writeString(path, "label,concurrency,requests,rps,p50_ms,p95_ms,p99_ms,max_ms,errors\n");
+            }
+            Files.writeString(path, report + "\n", StandardOpenOption.APPEND);
+        }
+    }
+
+    private static Result run(HttpClient client, List<HttpRequest> requests, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder errors = new LongAdder();
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int offset = i;
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int n = offset; System.nanoTime() < deadline; n++) {
+                        HttpRequest request = requests.get(n % requests.size());
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] part = worker.get();
+            int size = all.length;
+            all = Arrays.copyOf(all, size + part.length);
+            System.arraycopy(part, 0, all, size, part.length);
+        }
+        return new Result(all, errors.sum());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Map<String, List<String>> parse(String[] args) {
+        Map<String, List<String>> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Ожидался параметр --имя, получено: " + args[i]);
+            }
+            options.computeIfAbsent(args[i].substring(2), key -> new ArrayList<>()).add(args[i + 1]);
+        }
+        return options;
+    }
+
+    private static String option(Map<String, List<String>> options, String name, String defaultValue) {
+        List<String> values = options.get(name);
+        return values == null ? defaultValue : values.get(values.size() - 1);
+    }
+}
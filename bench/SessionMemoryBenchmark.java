@@ -0,0 +1,97 @@
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.session.StandardManager;
+import org.apache.catalina.session.StandardSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import ru.rutmiit.models.enums.UserRole;
+import ru.rutmiit.security.AppUserPrincipal;
+import ru.rutmiit.security.SecurityContextCookieCodec;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Память сервера на N вошедших пользователей: HTTP-сессии Tomcat с тем же содержимым,
+ * что кладёт приложение (контекст безопасности и CSRF-токен), против cookie-режима,
+ * где на сервере не хранится ничего, а каждый запрос проверяет подпись cookie.
+ * Запуск: bench/compare-session-memory.sh [пользователей]
+ */
+public class SessionMemoryBenchmark {
+
+    private static final String CSRF_TOKEN_ATTRIBUTE = HttpSessionCsrfTokenRepository.class.getName() + ".CSRF_TOKEN";
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        UserRole[] roles = UserRole.values();
+
+        long before = usedHeap();
+        StandardManager manager = new StandardManager();
+        manager.setContext(new StandardContext());
+        for (int i = 0; i < users; i++) {
+            StandardSession session = (StandardSession) manager.createEmptySession();
+            session.setValid(true);
+            session.setCreationTime(System.currentTimeMillis());
+            session.setMaxInactiveInterval(1800);
+            session.setId(UUID.randomUUID().toString().replace("-", "").toUpperCase());
+
+            AppUserPrincipal principal = new AppUserPrincipal(UUID.randomUUID().toString(), "student" + i,
+                    "", roles[i % roles.length]);
+            principal.eraseCredentials();
+            UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, null, principal.getAuthorities());
+            String remoteAddress = "10.0." + (i >> 8 & 255) + "." + (i & 255);
+            authentication.setDetails(new WebAuthenticationDetails(remoteAddress, session.getId()));
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(authentication), false);
+            session.setAttribute(CSRF_TOKEN_ATTRIBUTE,
+                    new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", UUID.randomUUID().toString()), false);
+        }
+        long sessionBytes = usedHeap() - before;
+
+        SecurityContextCookieCodec codec = new SecurityContextCookieCodec("bench-secret-bench-secret-bench-secret", false);
+        SecurityContextCookieCodec encrypting = new SecurityContextCookieCodec("bench-secret-bench-secret-bench-secret", true);
+        List<String> cookies = new ArrayList<>(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            Instant now = Instant.now();
+            cookies.add(codec.encode(new SecurityContextCookieCodec.Claims(UUID.randomUUID().toString(),
+                    "student" + i, roles[i % roles.length], now, now.plusSeconds(1800))));
+        }
+        String sample = cookies.get(0);
+        String encryptedSample = encrypting.encode(codec.decode(sample).orElseThrow());
+
+        // Прогрев, затем замер проверки подписи
+        for (int round = 0; round < 20; round++) {
+            for (String cookie : cookies) {
+                codec.decode(cookie);
+            }
+        }
+        long start = System.nanoTime();
+        int rounds = 50;
+        for (int round = 0; round < rounds; round++) {
+            for (String cookie : cookies) {
+                codec.decode(cookie);
+            }
+        }
+        double decodeMicros = (System.nanoTime() - start) / 1000.0 / (rounds * cookies.size());
+
+        System.out.printf("Пользователей: %,d%n", users);
+        System.out.printf("HTTP-сессии:   %,d КБ в куче (%,d байт на пользователя), активных сессий: %,d%n",
+                sessionBytes / 1024, sessionBytes / users, manager.getActiveSessions());
+        System.out.printf("Cookie-режим:  0 байт на пользователя на сервере; cookie %d байт (с шифрованием %d), " +
+                "проверка подписи %.1f мкс на запрос%n", sample.length(), encryptedSample.length(), decodeMicros);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
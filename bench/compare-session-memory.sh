@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Память сервера на вошедших пользователей: HTTP-сессии против cookie-режима
+# (app.security.context.store=cookie). Приложение не запускается - объекты сессий
+# создаются напрямую через классы Tomcat и Spring Security из зависимостей проекта.
+#
+#   bench/compare-session-memory.sh [пользователей]   (по умолчанию 50000)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+USERS=${1:-50000}
+CP_FILE=target/bench-classpath.txt
+
+mvn -B -q compile dependency:build-classpath -Dmdep.outputFile="$CP_FILE"
+java -Xmx2g -XX:+UseSerialGC -cp "target/classes:$(cat "$CP_FILE")" bench/SessionMemoryBenchmark.java "$USERS"
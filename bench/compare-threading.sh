@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# Сравнение пропускной способности и p99 в режимах платформенных и виртуальных потоков.
+# Приложение запускается дважды на одной и той же базе, между прогонами ничего не меняется,
+# кроме профиля virtual. Результаты дописываются в bench/results/threading-<дата>.csv.
+#
+#   bench/compare-threading.sh [URL-путь ...]
+#
+# Переменные окружения:
+#   CONCURRENCY  число одновременных клиентов (по умолчанию 400 - больше пула Tomcat в 200 потоков)
+#   DURATION     длительность замера, с (30)
+#   WARMUP       прогрев, с (15)
+#   PROFILES     базовые профили Spring (local - без Redis)
+#   BENCH_COOKIE cookie авторизованной сессии для закрытых страниц, например "JSESSIONID=..."
+#   PORT         порт приложения (18080)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-15}
+PROFILES=${PROFILES:-local}
+PORT=${PORT:-18080}
+PATHS=("${@:-/}")
+RESULTS=bench/results/threading-$(date +%Y%m%d-%H%M%S).csv
+
+mkdir -p bench/results
+mvn -B -q -DskipTests package
+JAR=$(ls target/*.jar | grep -v '\.original$' | head -1)
+
+run_mode() {
+    local mode=$1 profiles=$2
+    echo "=== Режим: $mode (профили: $profiles)"
+    java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" \
+        --logging.level.root=WARN --logging.level.ru.rutmiit=INFO \
+        --spring.jpa.show-sql=false > "bench/results/app-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    for _ in $(seq 1 120); do
+        if curl -fs "http://localhost:$PORT/actuator/health" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+
+    local urls=()
+    for path in "${PATHS[@]}"; do
+        urls+=(--url "http://localhost:$PORT$path")
+    done
+    local cookie=()
+    if [[ -n "${BENCH_COOKIE:-}" ]]; then
+        cookie=(--cookie "$BENCH_COOKIE")
+    fi
+
+    java bench/LoadBenchmark.java "${urls[@]}" "${cookie[@]}" --concurrency "$CONCURRENCY" \
+        --duration "$DURATION" --warmup "$WARMUP" --label "$mode" --out "$RESULTS"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform "$PROFILES"
+run_mode virtual "$PROFILES,virtual"
+
+echo
+echo "Результаты: $RESULTS"
+column -s, -t < "$RESULTS"
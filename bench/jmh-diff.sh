@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Сравнение двух прогонов bench/run-jmh.sh: изменение каждого замера в процентах
+# и пометка, выходит ли разница за пределы погрешности обоих прогонов.
+#
+#   bench/jmh-diff.sh bench/results/jmh-<было>.json bench/results/jmh-<стало>.json
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CP_FILE=target/bench-classpath.txt
+
+if [ ! -s "$CP_FILE" ]; then
+    mvn -B -q dependency:build-classpath -Dmdep.outputFile="$CP_FILE"
+fi
+java -cp "$(cat "$CP_FILE")" bench/JmhDiff.java "$1" "$2"
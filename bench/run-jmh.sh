@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Микробенчмарки JMH из src/jmh/java (профиль Maven jmh). Результат в JSON сохраняется
+# в bench/results/jmh-<коммит>.json, чтобы сравнивать коммиты через bench/jmh-diff.sh.
+#
+#   bench/run-jmh.sh                       # все бенчмарки
+#   bench/run-jmh.sh Rendering -p rows=20  # фильтр по имени и любые параметры JMH
+#
+# StudentGradebookBenchmark поднимает приложение на H2; для PostgreSQL передайте
+# JAVA_TOOL_OPTIONS="-Dbench.jdbc.url=jdbc:postgresql://localhost:5432/bench".
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+REV=$(git rev-parse --short HEAD)
+if ! git diff --quiet HEAD -- src pom.xml; then
+    REV="$REV-dirty"
+fi
+RESULT=bench/results/jmh-$REV.json
+
+mkdir -p bench/results
+# clean: классы бенчмарков не должны остаться в target/classes и попасть в jar
+mvn -B -q -Pjmh clean compile exec:exec -Djmh.args="$* -rf json -rff $RESULT"
+echo "Результаты: $RESULT"
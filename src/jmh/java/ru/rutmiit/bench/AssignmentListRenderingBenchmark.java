@@ -0,0 +1,153 @@
+package ru.rutmiit.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.servlet.support.csrf.CsrfRequestDataValueProcessor;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.support.RequestContext;
+import org.springframework.web.servlet.view.AbstractTemplateView;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.extras.springsecurity6.dialect.SpringSecurityDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.context.webmvc.SpringWebMvcThymeleafRequestContext;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring6.naming.SpringContextVariableNames;
+import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.mappers.AssignmentMapperImpl;
+import ru.rutmiit.views.fragments.FragmentCache;
+import ru.rutmiit.views.fragments.FragmentCacheDialect;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рендеринг assignment-list.html с rows карточками. Движок настроен как в Spring Boot
+ * (шаблоны из classpath:/templates/ с кэшем, диалект Spring Security), а модель
+ * дополнена тем же, что добавляет ThymeleafView: контекст запроса, CSRF-токен и
+ * вошедший администратор, чтобы навбар рендерился полностью.
+ * fragmentCache=on подключает диалект cache: (карточки и ссылки навбара берутся из кэша фрагментов),
+ * off - без диалекта, атрибуты cache:* выводятся как есть.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssignmentListRenderingBenchmark {
+
+    @Param({"20", "100"})
+    public int rows;
+
+    @Param({"off", "on"})
+    public String fragmentCache;
+
+    private GenericWebApplicationContext applicationContext;
+    private SpringTemplateEngine templateEngine;
+    private MockServletContext servletContext;
+    private JakartaServletWebApplication webApplication;
+    private List<ShowAssignmentDto> assignments;
+
+    @Setup
+    public void setUp() {
+        Fixtures.quietLogging();
+        servletContext = new MockServletContext();
+        applicationContext = new GenericWebApplicationContext(servletContext);
+        applicationContext.registerBean(DefaultWebSecurityExpressionHandler.class);
+        applicationContext.registerBean("requestDataValueProcessor", CsrfRequestDataValueProcessor.class);
+        applicationContext.refresh();
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+
+        SpringResourceTemplateResolver resolver = new SpringResourceTemplateResolver();
+        resolver.setApplicationContext(applicationContext);
+        resolver.setPrefix("classpath:/templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.addDialect(new SpringSecurityDialect());
+        if ("on".equals(fragmentCache)) {
+            templateEngine.addDialect(new FragmentCacheDialect(
+                    new FragmentCache(10_000, Duration.ofMinutes(10), new SimpleMeterRegistry())));
+        }
+        webApplication = JakartaServletWebApplication.buildApplication(servletContext);
+
+        // Потоки JMH не совпадают с потоком @Setup - контекст безопасности общий
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.setContext(new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))));
+
+        AssignmentMapperImpl mapper = new AssignmentMapperImpl();
+        assignments = Fixtures.assignments(rows, 25).stream().map(mapper::toShowDto).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public String render() {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/assignments/all");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CsrfToken csrfToken = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", UUID.randomUUID().toString());
+        request.setAttribute(CsrfToken.class.getName(), csrfToken);
+        request.setAttribute(csrfToken.getParameterName(), csrfToken);
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("assignments", assignments);
+        model.put("hasNext", true);
+        model.put("nextCursor", "MjAyNi0xMC0xOFQxMjowMDowMHw0Mg");
+        model.put("sortBy", "createdAt");
+        model.put("size", rows);
+        model.put("currentPage", 0);
+
+        RequestContext requestContext = new RequestContext(request, response, servletContext, model);
+        model.put(SpringContextVariableNames.SPRING_REQUEST_CONTEXT, requestContext);
+        model.put(AbstractTemplateView.SPRING_MACRO_REQUEST_CONTEXT_ATTRIBUTE, requestContext);
+        model.put(SpringContextVariableNames.THYMELEAF_REQUEST_CONTEXT,
+                new SpringWebMvcThymeleafRequestContext(requestContext, request));
+        model.put(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+
+        WebContext context = new WebContext(webApplication.buildExchange(request, response), Locale.forLanguageTag("ru"), model);
+        Writer writer = new StringWriter(16 * 1024);
+        templateEngine.process("assignment-list", context, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.rutmiit.bench;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.rutmiit.dto.AssignmentDetailsDto;
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.dto.StudentInfoDto;
+import ru.rutmiit.mappers.AssignmentMapper;
+import ru.rutmiit.mappers.AssignmentMapperImpl;
+import ru.rutmiit.models.entities.Assignment;
+import ru.rutmiit.models.entities.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сгенерированный MapStruct маппер против прежнего ModelMapper на странице списка
+ * (rows строк ShowAssignmentDto) и на странице задания (AssignmentDetailsDto со студентами).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssignmentMappingBenchmark {
+
+    @Param({"20", "200"})
+    public int rows;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final AssignmentMapper assignmentMapper = new AssignmentMapperImpl();
+    private List<Assignment> assignments;
+
+    @Setup
+    public void setUp() {
+        Fixtures.quietLogging();
+        assignments = Fixtures.assignments(rows, 25);
+        // Карта типов ModelMapper строится при первом вызове - не включаем это в замер
+        modelMapper.map(assignments.get(0), ShowAssignmentDto.class);
+        modelMapper.map(assignments.get(0), AssignmentDetailsDto.class);
+    }
+
+    @Benchmark
+    public List<ShowAssignmentDto> listModelMapper() {
+        List<ShowAssignmentDto> result = new ArrayList<>(assignments.size());
+        for (Assignment assignment : assignments) {
+            ShowAssignmentDto dto = modelMapper.map(assignment, ShowAssignmentDto.class);
+            dto.setTeacherName(assignment.getTeacher().getFullName());
+            dto.setStudentCount(assignment.getAssignedStudents().size());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ShowAssignmentDto> listMapStruct() {
+        List<ShowAssignmentDto> result = new ArrayList<>(assignments.size());
+        for (Assignment assignment : assignments) {
+            result.add(assignmentMapper.toShowDto(assignment));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AssignmentDetailsDto detailsModelMapper() {
+        Assignment assignment = assignments.get(0);
+        AssignmentDetailsDto dto = modelMapper.map(assignment, AssignmentDetailsDto.class);
+        dto.setTeacherName(assignment.getTeacher().getFullName());
+        List<StudentInfoDto> students = new ArrayList<>();
+        for (User student : assignment.getAssignedStudents()) {
+            StudentInfoDto studentDto = new StudentInfoDto();
+            studentDto.setId(student.getId());
+            studentDto.setFullName(student.getFullName());
+            studentDto.setUsername(student.getUsername());
+            students.add(studentDto);
+        }
+        dto.setAssignedStudents(students);
+        return dto;
+    }
+
+    @Benchmark
+    public AssignmentDetailsDto detailsMapStruct() {
+        return assignmentMapper.toDetailsDto(assignments.get(0));
+    }
+}
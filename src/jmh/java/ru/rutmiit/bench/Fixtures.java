@@ -0,0 +1,67 @@
+package ru.rutmiit.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+import ru.rutmiit.models.entities.Assignment;
+import ru.rutmiit.models.entities.User;
+import ru.rutmiit.models.enums.AssignmentStatus;
+import ru.rutmiit.models.enums.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тестовые данные для бенчмарков: сущности собираются в памяти, без базы.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // Без Spring Boot logback пишет всё с уровня DEBUG в консоль - замерялось бы логирование
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static User user(String username, UserRole role) {
+        User user = User.builder()
+                .username(username)
+                .password("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z9yDdJXsqbF1TgZ3q8o5cB6e")
+                .email(username + "@example.com")
+                .fullName("Пользователь " + username)
+                .age(20)
+                .role(role)
+                .build();
+        user.setId(UUID.randomUUID().toString());
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    static List<Assignment> assignments(int count, int studentsPerAssignment) {
+        User teacher = user("teacher", UserRole.TEACHER);
+        List<User> students = new ArrayList<>(studentsPerAssignment);
+        for (int i = 0; i < studentsPerAssignment; i++) {
+            students.add(user("student" + i, UserRole.STUDENT));
+        }
+        List<Assignment> assignments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Assignment assignment = Assignment.builder()
+                    .title("Лабораторная работа №" + i)
+                    .description("Описание задания " + i + ": реализовать и протестировать модуль")
+                    .criteria("Корректность, оформление, тесты")
+                    .deadline(LocalDateTime.now().plusDays(i % 14))
+                    .status(i % 5 == 0 ? AssignmentStatus.EXPIRED : AssignmentStatus.ACTIVE)
+                    .teacher(teacher)
+                    .assignedStudents(new ArrayList<>(students))
+                    .build();
+            assignment.setId(UUID.randomUUID().toString());
+            assignment.setCreatedAt(LocalDateTime.now().minusDays(i));
+            assignment.setUpdatedAt(assignment.getCreatedAt());
+            assignments.add(assignment);
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.rutmiit.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.rutmiit.concurrency.OffloadingPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хеширование и проверка пароля так, как их собирает AppSecurityConfiguration:
+ * DelegatingPasswordEncoder над BCrypt, вызовы через пул OffloadingPasswordEncoder.
+ * matchesInCallerThread показывает накладные расходы пула.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncodingBenchmark {
+
+    private static final String PASSWORD = "topsecret";
+
+    @Param({"10"})
+    public int strength;
+
+    private PasswordEncoder delegating;
+    private OffloadingPasswordEncoder offloading;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        Fixtures.quietLogging();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.<String, PasswordEncoder>of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        delegating = encoder;
+        offloading = new OffloadingPasswordEncoder(encoder, Runtime.getRuntime().availableProcessors(), 64,
+                Duration.ofSeconds(30), new SimpleMeterRegistry());
+        encoded = delegating.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        offloading.close();
+    }
+
+    @Benchmark
+    public String encode() {
+        return offloading.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return offloading.matches(PASSWORD, encoded);
+    }
+
+    @Benchmark
+    public boolean matchesInCallerThread() {
+        return delegating.matches(PASSWORD, encoded);
+    }
+}
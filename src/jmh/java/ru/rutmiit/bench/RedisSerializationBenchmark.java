@@ -0,0 +1,116 @@
+package ru.rutmiit.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.rutmiit.cache.BinaryCacheValueSerializer;
+import ru.rutmiit.cache.CacheValueCodecs;
+import ru.rutmiit.cache.NearCacheProperties;
+import ru.rutmiit.config.RedisConfig;
+import ru.rutmiit.dto.StudentGradeSummaryDto;
+import ru.rutmiit.mappers.AssignmentMapperImpl;
+import ru.rutmiit.models.entities.Assignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Значения кэшей в Redis: прежний JSON (redisObjectMapper с именами классов) против
+ * BinaryCacheValueSerializer. Замеряются кодирование и декодирование в нс, а вспомогательная
+ * метрика bytes - размер одной записи в байтах.
+ * codec: json, binary (порог сжатия по умолчанию), deflate (сжимается всё, для подбора порога).
+ * value: summary - сводка оценок, details - задание с 25 студентами, list - 20 карточек списка.
+ * Декодирование json/list завершается ошибкой: Jackson пишет вычисляемое formattedDeadline,
+ * которое потом не может прочитать, - прежний формат такие списки не переносил вовсе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializationBenchmark {
+
+    @Param({"json", "binary", "deflate"})
+    public String codec;
+
+    @Param({"summary", "details", "list"})
+    public String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object entry;
+    private byte[] encoded;
+
+    /**
+     * Размер записи. JMH суммирует EVENTS по итерациям замера, поэтому значение
+     * выставляется только в первой из них - в результат попадает ровно размер записи.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EntrySize {
+        public long bytes;
+        private boolean record;
+        private boolean recorded;
+
+        @Setup(Level.Iteration)
+        public void beforeIteration(IterationParams params) {
+            bytes = 0;
+            record = params.getType() == IterationType.MEASUREMENT && !recorded;
+            recorded |= record;
+        }
+
+        void record(int length) {
+            if (record) {
+                bytes = length;
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Fixtures.quietLogging();
+        serializer = switch (codec) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper());
+            case "binary" -> new BinaryCacheValueSerializer(CacheValueCodecs.all(),
+                    new NearCacheProperties().getCompressionThreshold());
+            case "deflate" -> new BinaryCacheValueSerializer(CacheValueCodecs.all(), 0);
+            default -> throw new IllegalArgumentException(codec);
+        };
+        AssignmentMapperImpl mapper = new AssignmentMapperImpl();
+        List<Assignment> assignments = Fixtures.assignments(20, 25);
+        entry = switch (value) {
+            case "summary" -> new StudentGradeSummaryDto(42, 37, 3, 4.35);
+            case "details" -> mapper.toDetailsDto(assignments.get(0));
+            case "list" -> new ArrayList<>(assignments.stream().map(mapper::toShowDto).toList());
+            default -> throw new IllegalArgumentException(value);
+        };
+        encoded = serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public byte[] encode(EntrySize size) {
+        byte[] bytes = serializer.serialize(entry);
+        size.record(bytes.length);
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,137 @@
+package ru.rutmiit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.rutmiit.CompanyApplication;
+import ru.rutmiit.dto.StudentGradeRowDto;
+import ru.rutmiit.dto.StudentGradeSummaryDto;
+import ru.rutmiit.repositories.SubmissionRepository;
+import ru.rutmiit.services.StudentGradebookService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал оценок студента на настоящем контексте приложения (профиль local, без Redis):
+ * агрегатный запрос сводки мимо кэша, сводка из кэша и первая страница строк.
+ * По умолчанию база - H2 в памяти в режиме PostgreSQL. Для замера на PostgreSQL:
+ * -Dbench.jdbc.url=jdbc:postgresql://.../bench -Dbench.jdbc.username=... -Dbench.jdbc.password=...
+ * (схема создаётся и удаляется, ddl-auto=create-drop - нужна отдельная база).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentGradebookBenchmark {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO submissions (id, created_at, updated_at, assignment_id, student_id, solution_text,
+                                     grade, teacher_comment, status, submitted_at, graded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Param({"100", "1000"})
+    public int submissions;
+
+    private ConfigurableApplicationContext context;
+    private SubmissionRepository submissionRepository;
+    private StudentGradebookService gradebookService;
+    private String username;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE");
+        boolean h2 = url.startsWith("jdbc:h2:");
+        // Аргументы командной строки, а не properties(): те проигрывают application.properties.
+        // Логи SQL и привязки параметров выключены - иначе замеряется логирование
+        String[] args = {
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driverClassName=" + DatabaseDriver.fromJdbcUrl(url).getDriverClassName(),
+                "--spring.datasource.username=" + System.getProperty("bench.jdbc.username", h2 ? "sa" : "postgres"),
+                "--spring.datasource.password=" + System.getProperty("bench.jdbc.password", h2 ? "" : "postgres"),
+                "--spring.jpa.properties.hibernate.dialect=" + (h2
+                        ? "org.hibernate.dialect.H2Dialect" : "org.hibernate.dialect.PostgreSQLDialect"),
+                "--spring.jpa.properties.hibernate.hbm2ddl.import_files=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.rutmiit=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.orm.jdbc.bind=WARN"
+        };
+        context = new SpringApplicationBuilder(CompanyApplication.class)
+                .profiles("local")
+                .run(args);
+        submissionRepository = context.getBean(SubmissionRepository.class);
+        gradebookService = context.getBean(StudentGradebookService.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Все сдачи у одного студента по заданиям, созданным Init: 80% оценены, каждая десятая - с опозданием
+    private void seed(JdbcTemplate jdbc) {
+        Map<String, Object> student = jdbc.queryForMap(
+                "SELECT id, username FROM users WHERE role = 'STUDENT' ORDER BY username LIMIT 1");
+        username = (String) student.get("username");
+        List<String> assignmentIds = jdbc.queryForList("SELECT id FROM assignments ORDER BY id", String.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(submissions);
+        for (int i = 0; i < submissions; i++) {
+            Timestamp submittedAt = Timestamp.valueOf(now.minusHours(i));
+            boolean graded = i % 5 != 0;
+            rows.add(new Object[]{
+                    UUID.randomUUID().toString(), submittedAt, submittedAt,
+                    assignmentIds.get(i % assignmentIds.size()), student.get("id"),
+                    "Решение " + i,
+                    graded ? 2 + i % 4 : null,
+                    graded ? "Комментарий преподавателя" : null,
+                    graded ? "GRADED" : i % 10 == 0 ? "LATE" : "SUBMITTED",
+                    submittedAt,
+                    graded ? submittedAt : null});
+        }
+        jdbc.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Benchmark
+    public StudentGradeSummaryDto summaryQuery() {
+        return submissionRepository.getGradeSummaryByStudentUsername(username);
+    }
+
+    @Benchmark
+    public StudentGradeSummaryDto summaryCached() {
+        return gradebookService.getSummary(username);
+    }
+
+    @Benchmark
+    public Page<StudentGradeRowDto> firstPage() {
+        return gradebookService.getRows(username, 0, 20);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.rutmiit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import ru.rutmiit.security.AppUserPrincipal;
+
+import java.time.Duration;
+
+/**
+ * Локальный кэш учётных данных для входа по форме и remember-me.
+ * Хранится только в памяти процесса (хеш пароля не уходит в Redis); об изменении пароля или роли
+ * остальные узлы узнают через {@link CacheInvalidationBus}, TTL - лишь страховка на случай
+ * потерянного сообщения. Наружу отдаются копии: после аутентификации Spring Security
+ * вызывает eraseCredentials() у principal, и общий экземпляр потерял бы пароль.
+ */
+@Slf4j
+@Component
+public class AuthenticationUserCache implements UserCache {
+
+    // Имя для шины инвалидаций; регионом CacheManager не является
+    public static final String CACHE_NAME = "authenticationUsers";
+
+    private final Cache<String, UserDetails> users;
+    private final CacheInvalidationBus invalidationBus;
+    private final Counter hits;
+    private final Counter misses;
+
+    public AuthenticationUserCache(MeterRegistry meterRegistry,
+                                   CacheInvalidationBus invalidationBus,
+                                   @Value("${app.security.user-cache.max-size:10000}") long maxSize,
+                                   @Value("${app.security.user-cache.ttl:5m}") Duration ttl) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        meterRegistry.gauge("security.user.cache.size", Tags.empty(), users, Cache::estimatedSize);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.addListener(this::onRemoteInvalidation);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = users.getIfPresent(username);
+        if (user == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), copy(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+        log.debug("Пользователь {} удалён из кэша аутентификации", username);
+    }
+
+    /**
+     * Удаляет пользователя из кэша на этом узле и рассылает удаление остальным.
+     */
+    public void evictEverywhere(String username) {
+        removeUserFromCache(username);
+        invalidationBus.publishEvict(CACHE_NAME, username);
+    }
+
+    private void onRemoteInvalidation(String cacheName, String username) {
+        if (!CACHE_NAME.equals(cacheName)) {
+            return;
+        }
+        if (username == null) {
+            users.invalidateAll();
+        } else {
+            removeUserFromCache(username);
+        }
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return user instanceof AppUserPrincipal principal
+                ? principal.withPassword(principal.getPassword())
+                : User.withUserDetails(user).build();
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("security.user.cache.gets")
+                .description("Обращения к кэшу учётных данных")
+                .tag("result", result)
+                .register(registry);
+    }
+}
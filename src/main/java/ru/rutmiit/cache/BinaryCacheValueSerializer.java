@@ -0,0 +1,287 @@
+package ru.rutmiit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Компактный двоичный формат значений кэша в Redis вместо JSON с именами классов.
+ * Значение: {@code [0xCA][флаги][длина до сжатия, если сжато][тело]}, тело - тег типа,
+ * версия схемы и поля по {@link CacheValueCodec}; список - тег 0, размер и общий тег элементов;
+ * {@link RefreshableValue} - тег 255, время и длительность загрузки, затем вложенное тело.
+ * Тела не короче порога сжимаются Deflate, если это действительно уменьшает размер.
+ * <p>
+ * Записать можно только зарегистрированные типы - остальные отклоняются с ошибкой.
+ * Записи, которые этот узел прочитать не может (прежний JSON, неизвестный тег, более новая
+ * версия схемы с другого узла при выкладке), возвращаются как null - для кэша это промах,
+ * и значение пересчитывается и перезаписывается.
+ */
+@Slf4j
+public class BinaryCacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xCA;
+    private static final int FLAG_DEFLATED = 1;
+    private static final int TAG_LIST = 0;
+    private static final int TAG_REFRESHABLE = 255;
+    private static final byte[] EMPTY = new byte[0];
+    private static final int POOL_SIZE = 16;
+
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final CacheValueCodec<?>[] codecsByTag = new CacheValueCodec<?>[256];
+    private final int compressionThreshold;
+    // Создание Deflater/Inflater - это выделение нативных буферов zlib, дороже самого сжатия записи
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public BinaryCacheValueSerializer(Collection<? extends CacheValueCodec<?>> codecs, int compressionThreshold) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.tag() <= TAG_LIST || codec.tag() >= TAG_REFRESHABLE || codec.version() < 0 || codec.version() > 255) {
+                throw new IllegalArgumentException("Недопустимый тег или версия схемы для " + codec.type().getName());
+            }
+            if (codecsByTag[codec.tag()] != null || codecsByType.containsKey(codec.type())) {
+                throw new IllegalArgumentException("Тег " + codec.tag() + " или тип " + codec.type().getName()
+                        + " зарегистрирован дважды");
+            }
+            codecsByTag[codec.tag()] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(body);
+            writeBody(value, out);
+            out.flush();
+            return frame(body.toByteArray());
+        } catch (IOException e) {
+            throw new SerializationException("Не удалось сериализовать значение кэша", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            log.debug("Значение кэша в незнакомом формате (вероятно, прежний JSON) - считается промахом");
+            return null;
+        }
+        try {
+            return readBody(new DataInputStream(new ByteArrayInputStream(unframe(bytes))));
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Повреждённое значение кэша", e);
+        }
+    }
+
+    private void writeBody(Object value, DataOutputStream out) throws IOException {
+        if (value instanceof RefreshableValue refreshable) {
+            if (refreshable.getValue() == null || refreshable.getValue() instanceof RefreshableValue) {
+                throw new SerializationException("RefreshableValue должен содержать кэшируемое значение");
+            }
+            out.writeByte(TAG_REFRESHABLE);
+            CacheValueCodecs.writeVarLong(out, refreshable.getLoadedAt());
+            CacheValueCodecs.writeVarLong(out, refreshable.getLoadMillis());
+            writeBody(refreshable.getValue(), out);
+        } else if (value instanceof List<?> list) {
+            writeList(list, out);
+        } else {
+            CacheValueCodec<Object> codec = codecFor(value);
+            out.writeByte(codec.tag());
+            out.writeByte(codec.version());
+            codec.write(value, out);
+        }
+    }
+
+    private Object readBody(DataInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == TAG_REFRESHABLE) {
+            long loadedAt = CacheValueCodecs.readVarLong(in);
+            long loadMillis = CacheValueCodecs.readVarLong(in);
+            Object value = readBody(in);
+            return value != null ? new RefreshableValue(value, loadedAt, loadMillis) : null;
+        }
+        return tag == TAG_LIST ? readList(in) : readValue(tag, in);
+    }
+
+    private void writeList(List<?> list, DataOutputStream out) throws IOException {
+        out.writeByte(TAG_LIST);
+        writeVarInt(out, list.size());
+        if (list.isEmpty()) {
+            return;
+        }
+        CacheValueCodec<Object> codec = codecFor(list.get(0));
+        out.writeByte(codec.tag());
+        out.writeByte(codec.version());
+        for (Object element : list) {
+            if (element == null || element.getClass() != codec.type()) {
+                throw new SerializationException("Элементы кэшируемого списка должны быть одного типа " + codec.type().getName());
+            }
+            codec.write(element, out);
+        }
+    }
+
+    private List<Object> readList(DataInput in) throws IOException {
+        int size = readVarInt(in);
+        List<Object> list = new ArrayList<>(size);
+        if (size == 0) {
+            return list;
+        }
+        int tag = in.readUnsignedByte();
+        int version = in.readUnsignedByte();
+        CacheValueCodec<?> codec = readableCodec(tag, version);
+        if (codec == null) {
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            list.add(codec.read(in, version));
+        }
+        return list;
+    }
+
+    private Object readValue(int tag, DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        CacheValueCodec<?> codec = readableCodec(tag, version);
+        return codec != null ? codec.read(in, version) : null;
+    }
+
+    private CacheValueCodec<?> readableCodec(int tag, int version) {
+        CacheValueCodec<?> codec = codecsByTag[tag];
+        if (codec == null || version > codec.version()) {
+            log.debug("Значение кэша с тегом {} версии {} не поддерживается этим узлом - считается промахом", tag, version);
+            return null;
+        }
+        return codec;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheValueCodec<Object> codecFor(Object value) {
+        CacheValueCodec<?> codec = codecsByType.get(value.getClass());
+        if (codec == null) {
+            throw new SerializationException("Тип " + value.getClass().getName()
+                    + " не входит в список кэшируемых (app.cache.value-codec=binary)");
+        }
+        return (CacheValueCodec<Object>) codec;
+    }
+
+    private byte[] frame(byte[] body) throws IOException {
+        if (body.length >= compressionThreshold) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                ByteArrayOutputStream framed = new ByteArrayOutputStream(deflated.length + 7);
+                DataOutputStream out = new DataOutputStream(framed);
+                out.writeByte(MAGIC);
+                out.writeByte(FLAG_DEFLATED);
+                writeVarInt(out, body.length);
+                out.write(deflated);
+                return framed.toByteArray();
+            }
+        }
+        byte[] framed = new byte[body.length + 2];
+        framed[0] = MAGIC;
+        System.arraycopy(body, 0, framed, 2, body.length);
+        return framed;
+    }
+
+    private byte[] unframe(byte[] bytes) throws IOException, DataFormatException {
+        if ((bytes[1] & FLAG_DEFLATED) == 0) {
+            byte[] body = new byte[bytes.length - 2];
+            System.arraycopy(bytes, 2, body, 0, body.length);
+            return body;
+        }
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2));
+        int length = readVarInt(header);
+        int offset = bytes.length - header.available();
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(body, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new DataFormatException("Ожидалось " + length + " байт после распаковки, получено " + read);
+            }
+            return body;
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+
+    private byte[] deflate(byte[] body) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число varint");
+    }
+}
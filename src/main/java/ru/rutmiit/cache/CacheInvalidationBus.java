@@ -0,0 +1,77 @@
+package ru.rutmiit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Рассылка инвалидаций L1 между узлами через Redis pub/sub.
+ * Формат сообщения: {@code nodeId|cacheName|key}; пустой key означает очистку всего региона.
+ * Собственные сообщения узла игнорируются. Подписчиков несколько (регионы TwoLevelCache,
+ * кэш аутентификации); каждый сам отбирает свои имена кэшей.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param redisTemplate шаблон Redis; {@code null} - локальный режим, сообщения никуда не отправляются
+     */
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void addListener(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    private void publish(String cacheName, String key) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            // Запись уже в L2, остальные узлы догонят по TTL своего L1
+            log.warn("Не удалось отправить инвалидацию кэша {} [{}]: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length < 3) {
+            log.warn("Некорректное сообщение инвалидации: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        String key = parts[2].isEmpty() ? null : parts[2];
+        listeners.forEach(listener -> listener.accept(parts[1], key));
+    }
+}
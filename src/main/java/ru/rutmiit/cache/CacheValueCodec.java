@@ -0,0 +1,29 @@
+package ru.rutmiit.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Двоичная схема одного кэшируемого типа для {@link BinaryCacheValueSerializer}.
+ * Тег записывается в каждое значение вместо имени класса, версия схемы - рядом с ним:
+ * при изменении полей DTO версия увеличивается, а read() продолжает понимать старые версии.
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * Постоянный идентификатор типа, 1..254; 0 зарезервирован под списки, 255 - под {@link RefreshableValue}.
+     */
+    int tag();
+
+    /**
+     * Текущая версия схемы, 0..255; её пишет write().
+     */
+    int version();
+
+    Class<T> type();
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in, int version) throws IOException;
+}
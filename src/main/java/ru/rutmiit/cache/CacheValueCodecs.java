@@ -0,0 +1,306 @@
+package ru.rutmiit.cache;
+
+import ru.rutmiit.dto.AssignmentDetailsDto;
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.dto.StudentGradeSummaryDto;
+import ru.rutmiit.dto.StudentInfoDto;
+import ru.rutmiit.utils.pagination.KeysetSlice;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ru.rutmiit.cache.BinaryCacheValueSerializer.readVarInt;
+import static ru.rutmiit.cache.BinaryCacheValueSerializer.writeVarInt;
+
+/**
+ * Схемы типов, которые разрешено класть в Redis. Теги постоянны: новый тип получает
+ * следующий свободный номер, а изменение полей существующего - новую версию схемы.
+ */
+public final class CacheValueCodecs {
+
+    private CacheValueCodecs() {
+    }
+
+    public static List<CacheValueCodec<?>> all() {
+        return List.of(new StudentGradeSummaryCodec(), new AssignmentDetailsCodec(), new ShowAssignmentCodec(),
+                new AssignmentSliceCodec());
+    }
+
+    static final class StudentGradeSummaryCodec implements CacheValueCodec<StudentGradeSummaryDto> {
+
+        @Override
+        public int tag() {
+            return 1;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<StudentGradeSummaryDto> type() {
+            return StudentGradeSummaryDto.class;
+        }
+
+        @Override
+        public void write(StudentGradeSummaryDto value, DataOutput out) throws IOException {
+            writeVarLong(out, value.getTotalSubmissions());
+            writeVarLong(out, value.getGradedSubmissions());
+            writeVarLong(out, value.getLateSubmissions());
+            out.writeBoolean(value.getAverageGrade() != null);
+            if (value.getAverageGrade() != null) {
+                out.writeDouble(value.getAverageGrade());
+            }
+        }
+
+        @Override
+        public StudentGradeSummaryDto read(DataInput in, int version) throws IOException {
+            StudentGradeSummaryDto value = new StudentGradeSummaryDto();
+            value.setTotalSubmissions(readVarLong(in));
+            value.setGradedSubmissions(readVarLong(in));
+            value.setLateSubmissions(readVarLong(in));
+            value.setAverageGrade(in.readBoolean() ? in.readDouble() : null);
+            return value;
+        }
+    }
+
+    static final class AssignmentDetailsCodec implements CacheValueCodec<AssignmentDetailsDto> {
+
+        @Override
+        public int tag() {
+            return 2;
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public Class<AssignmentDetailsDto> type() {
+            return AssignmentDetailsDto.class;
+        }
+
+        @Override
+        public void write(AssignmentDetailsDto value, DataOutput out) throws IOException {
+            writeString(out, value.getId());
+            writeString(out, value.getTitle());
+            writeString(out, value.getDescription());
+            writeString(out, value.getCriteria());
+            writeDateTime(out, value.getDeadline());
+            writeString(out, value.getStatus());
+            writeString(out, value.getTeacherName());
+            writeDateTime(out, value.getCreatedAt());
+            List<StudentInfoDto> students = value.getAssignedStudents();
+            // 0 - null, иначе размер + 1
+            writeVarInt(out, students == null ? 0 : students.size() + 1);
+            if (students != null) {
+                for (StudentInfoDto student : students) {
+                    writeString(out, student.getId());
+                    writeString(out, student.getFullName());
+                    writeString(out, student.getUsername());
+                    writeString(out, student.getSubmissionStatus());
+                    out.writeBoolean(student.getGrade() != null);
+                    if (student.getGrade() != null) {
+                        writeVarInt(out, student.getGrade());
+                    }
+                }
+            }
+            writeDateTime(out, value.getUpdatedAt());
+        }
+
+        @Override
+        public AssignmentDetailsDto read(DataInput in, int version) throws IOException {
+            AssignmentDetailsDto value = new AssignmentDetailsDto();
+            value.setId(readString(in));
+            value.setTitle(readString(in));
+            value.setDescription(readString(in));
+            value.setCriteria(readString(in));
+            value.setDeadline(readDateTime(in));
+            value.setStatus(readString(in));
+            value.setTeacherName(readString(in));
+            value.setCreatedAt(readDateTime(in));
+            int size = readVarInt(in);
+            if (size > 0) {
+                List<StudentInfoDto> students = new ArrayList<>(size - 1);
+                for (int i = 1; i < size; i++) {
+                    StudentInfoDto student = new StudentInfoDto();
+                    student.setId(readString(in));
+                    student.setFullName(readString(in));
+                    student.setUsername(readString(in));
+                    student.setSubmissionStatus(readString(in));
+                    student.setGrade(in.readBoolean() ? readVarInt(in) : null);
+                    students.add(student);
+                }
+                value.setAssignedStudents(students);
+            }
+            // v2: время изменения для ключей кэша фрагментов
+            if (version >= 2) {
+                value.setUpdatedAt(readDateTime(in));
+            }
+            return value;
+        }
+    }
+
+    static final class ShowAssignmentCodec implements CacheValueCodec<ShowAssignmentDto> {
+
+        @Override
+        public int tag() {
+            return 3;
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public Class<ShowAssignmentDto> type() {
+            return ShowAssignmentDto.class;
+        }
+
+        @Override
+        public void write(ShowAssignmentDto value, DataOutput out) throws IOException {
+            writeString(out, value.getId());
+            writeString(out, value.getTitle());
+            writeString(out, value.getDescription());
+            writeDateTime(out, value.getDeadline());
+            writeString(out, value.getStatus());
+            writeString(out, value.getTeacherName());
+            writeVarInt(out, value.getStudentCount());
+            writeDateTime(out, value.getUpdatedAt());
+        }
+
+        @Override
+        public ShowAssignmentDto read(DataInput in, int version) throws IOException {
+            ShowAssignmentDto value = new ShowAssignmentDto();
+            value.setId(readString(in));
+            value.setTitle(readString(in));
+            value.setDescription(readString(in));
+            value.setDeadline(readDateTime(in));
+            value.setStatus(readString(in));
+            value.setTeacherName(readString(in));
+            value.setStudentCount(readVarInt(in));
+            if (version >= 2) {
+                value.setUpdatedAt(readDateTime(in));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Страница списка заданий; кэшируются только срезы карточек {@link ShowAssignmentDto}.
+     */
+    @SuppressWarnings("rawtypes")
+    static final class AssignmentSliceCodec implements CacheValueCodec<KeysetSlice> {
+
+        private final ShowAssignmentCodec cards = new ShowAssignmentCodec();
+
+        @Override
+        public int tag() {
+            return 4;
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public Class<KeysetSlice> type() {
+            return KeysetSlice.class;
+        }
+
+        @Override
+        public void write(KeysetSlice value, DataOutput out) throws IOException {
+            List<?> content = value.content();
+            writeVarInt(out, content.size());
+            for (Object card : content) {
+                if (!(card instanceof ShowAssignmentDto dto)) {
+                    throw new IOException("В кэше страниц допустимы только карточки заданий, получено: "
+                            + card.getClass().getName());
+                }
+                cards.write(dto, out);
+            }
+            out.writeBoolean(value.hasNext());
+            writeString(out, value.nextCursor());
+        }
+
+        @Override
+        public KeysetSlice read(DataInput in, int version) throws IOException {
+            int size = readVarInt(in);
+            List<ShowAssignmentDto> content = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                // Версия среза совпадает с версией схемы карточек в нём
+                content.add(cards.read(in, version));
+            }
+            boolean hasNext = in.readBoolean();
+            return new KeysetSlice<>(content, hasNext, readString(in));
+        }
+    }
+
+    // Строка: 0 - null, иначе длина UTF-8 + 1 и байты
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Дата без часового пояса: секунды и наносекунды как есть, без пересчёта зон
+    static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(out, value.getNano());
+        }
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = readVarLong(in);
+        return LocalDateTime.ofEpochSecond(seconds, readVarInt(in), ZoneOffset.UTC);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число varint");
+    }
+}
@@ -0,0 +1,79 @@
+package ru.rutmiit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки двухуровневого кэша: локальный L1 (Caffeine) перед Redis (L2).
+ * Размер и TTL L1 задаются для каждого региона отдельно, иначе берутся значения по умолчанию.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class NearCacheProperties {
+
+    /**
+     * false - L2 заменяется локальной картой в памяти (режим без Redis для разработки и тестов).
+     */
+    private boolean redisEnabled = true;
+
+    private String invalidationChannel = "cache:invalidation";
+
+    /**
+     * Формат значений в Redis: binary - {@link BinaryCacheValueSerializer} со списком разрешённых типов,
+     * json - прежний Jackson с именами классов в каждом объекте.
+     */
+    private ValueCodec valueCodec = ValueCodec.BINARY;
+
+    /**
+     * Двоичные значения от этого размера (байт) сжимаются. Сжатие Deflate стоит десятки микросекунд
+     * на килобайты, поэтому выгодно только для действительно крупных записей.
+     */
+    private int compressionThreshold = 4096;
+
+    /**
+     * Коэффициент вероятностного раннего обновления в {@link SingleFlightCache}: чем больше,
+     * тем раньше до конца свежести запись начинают обновлять; 0 - только по истечении свежести.
+     */
+    private double earlyRefreshBeta = 1.0;
+
+    /**
+     * Пул фоновых обновлений {@link SingleFlightCache}; при заполненной очереди обновление пропускается.
+     */
+    private int refreshThreads = 2;
+
+    private int refreshQueueCapacity = 100;
+
+    private Region defaults = new Region();
+
+    private Map<String, Region> regions = new HashMap<>();
+
+    public Region regionFor(String cacheName) {
+        return regions.getOrDefault(cacheName, defaults);
+    }
+
+    public enum ValueCodec {
+        BINARY,
+        JSON
+    }
+
+    @Data
+    public static class Region {
+        private long maxSize = 1000;
+        private Duration ttl = Duration.ofSeconds(60);
+
+        /**
+         * Для регионов {@link SingleFlightCache}: сколько запись считается свежей.
+         * Должно быть меньше TTL Redis на maxStale, иначе запись исчезнет раньше, чем устареет.
+         */
+        private Duration refreshAfter = Duration.ofSeconds(60);
+
+        /**
+         * Сколько после конца свежести ещё отдаётся старое значение, пока идёт фоновое обновление.
+         */
+        private Duration maxStale = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.rutmiit.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Запись кэша, которую ведёт {@link SingleFlightCache}: значение вместе со временем загрузки
+ * и её длительностью. По ним на любом узле одинаково решается, свежа ли запись, пора ли
+ * обновить её заранее и можно ли ещё отдать её устаревшей.
+ * Класс не final: JSON-формат кэша пишет тип корневого объекта только для нефинальных классов.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshableValue {
+
+    private Object value;
+
+    /**
+     * Момент загрузки, мс от эпохи.
+     */
+    private long loadedAt;
+
+    /**
+     * Сколько заняла загрузка, мс.
+     */
+    private long loadMillis;
+}
@@ -0,0 +1,279 @@
+package ru.rutmiit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Чтение горячих записей кэша без лавины запросов в БД при их устаревании.
+ * <ul>
+ *     <li>single-flight: на один ключ в процессе одновременно работает один загрузчик,
+ *     остальные вызывающие ждут его результат;</li>
+ *     <li>раннее обновление: свежая запись с вероятностью, растущей к концу свежести и с длительностью
+ *     загрузки, обновляется в фоне заранее (XFetch), поэтому популярные ключи почти не истекают;</li>
+ *     <li>stale-while-revalidate: в течение maxStale после конца свежести отдаётся старое значение,
+ *     а обновление идёт в фоне.</li>
+ * </ul>
+ * Значения хранятся в обычном регионе {@link CacheManager} в обёртке {@link RefreshableValue};
+ * сроки берутся из {@link NearCacheProperties.Region}. Загрузчик выполняется в отдельной
+ * read-only транзакции, поэтому вызывающий метод не должен держать свою (propagation = NOT_SUPPORTED):
+ * иначе ожидающие потоки занимают соединения пула. null не кэшируется.
+ * Записи этих регионов сбрасываются только через {@link #evict} и {@link #clear}: загрузка,
+ * начатая до изменения, не возвращает в кэш прежнее значение.
+ */
+@Slf4j
+@Component
+public class SingleFlightCache {
+
+    private final CacheManager cacheManager;
+    private final NearCacheProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final ConcurrentMap<Flight, Load> inFlight = new ConcurrentHashMap<>();
+
+    private final Timer loadTimer;
+    private final Counter refreshErrors;
+    private final Counter refreshRejected;
+
+    public SingleFlightCache(CacheManager cacheManager,
+                             NearCacheProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(refreshExecutor, "cacheRefresh", Tags.empty()).bindTo(meterRegistry);
+
+        this.loadTimer = Timer.builder("cache.singleflight.load")
+                .description("Время загрузки значений через single-flight")
+                .register(meterRegistry);
+        this.refreshErrors = Counter.builder("cache.singleflight.refresh.errors")
+                .description("Неудачные фоновые обновления записей кэша")
+                .register(meterRegistry);
+        this.refreshRejected = Counter.builder("cache.singleflight.refresh.rejected")
+                .description("Фоновые обновления, пропущенные из-за заполненной очереди")
+                .register(meterRegistry);
+    }
+
+    private record Flight(String cacheName, Object key) {
+    }
+
+    // Загрузка в процессе; invalidated - данные изменились после её начала, результат не кэшируется
+    private static final class Load {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
+    /**
+     * Значение из региона cacheName или результат loader, единственного на ключ в процессе.
+     * Исключение загрузчика получают все, кто ждал этот ключ; в кэш оно не попадает.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, Object key, Supplier<T> loader) {
+        Cache cache = cache(cacheName);
+        NearCacheProperties.Region region = properties.regionFor(cacheName);
+        RefreshableValue entry = lookup(cache, key);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.getLoadedAt();
+            long freshMillis = region.getRefreshAfter().toMillis();
+            if (age < freshMillis) {
+                if (refreshEarly(entry, freshMillis - age)) {
+                    count(cacheName, "early_refresh");
+                    refreshAsync(cacheName, cache, key, loader);
+                } else {
+                    count(cacheName, "hit");
+                }
+                return (T) entry.getValue();
+            }
+            if (age < freshMillis + region.getMaxStale().toMillis()) {
+                count(cacheName, "stale");
+                refreshAsync(cacheName, cache, key, loader);
+                return (T) entry.getValue();
+            }
+        }
+        return (T) load(cacheName, cache, key, loader);
+    }
+
+    /**
+     * Удаляет запись после коммита изменения. Загрузка этого ключа, идущая в этот момент,
+     * свой результат в кэш не кладёт, а новые вызовы не присоединяются к ней и читают заново.
+     */
+    public void evict(String cacheName, Object key) {
+        invalidate(new Flight(cacheName, key));
+        cache(cacheName).evict(key);
+    }
+
+    /**
+     * Сбрасывает весь регион, как {@link #evict} для каждого ключа.
+     */
+    public void clear(String cacheName) {
+        inFlight.keySet().stream()
+                .filter(flight -> flight.cacheName().equals(cacheName))
+                .forEach(this::invalidate);
+        cache(cacheName).clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Object load(String cacheName, Cache cache, Object key, Supplier<?> loader) {
+        Flight flight = new Flight(cacheName, key);
+        Load own = new Load();
+        Load running = inFlight.putIfAbsent(flight, own);
+        if (running != null) {
+            count(cacheName, "coalesced");
+            return await(running.result);
+        }
+        try {
+            // Предыдущий загрузчик мог закончить между нашим промахом и регистрацией
+            RefreshableValue entry = lookup(cache, key);
+            Object value = entry != null
+                    && System.currentTimeMillis() - entry.getLoadedAt() < properties.regionFor(cacheName).getRefreshAfter().toMillis()
+                    ? entry.getValue()
+                    : loadAndPut(cacheName, cache, key, loader, own);
+            own.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, own);
+        }
+    }
+
+    private void refreshAsync(String cacheName, Cache cache, Object key, Supplier<?> loader) {
+        Flight flight = new Flight(cacheName, key);
+        Load own = new Load();
+        if (inFlight.putIfAbsent(flight, own) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    own.result.complete(loadAndPut(cacheName, cache, key, loader, own));
+                } catch (RuntimeException e) {
+                    refreshErrors.increment();
+                    log.warn("Не удалось обновить запись {} в кэше {}: {}", key, cacheName, e.getMessage());
+                    own.result.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(flight, own);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshRejected.increment();
+            log.debug("Очередь обновления кэша заполнена, запись {} в кэше {} обновится позже", key, cacheName);
+            inFlight.remove(flight, own);
+            own.result.completeExceptionally(e);
+        }
+    }
+
+    private Object loadAndPut(String cacheName, Cache cache, Object key, Supplier<?> loader, Load own) {
+        long startedAt = System.currentTimeMillis();
+        long started = System.nanoTime();
+        Object value = readOnlyTransaction.execute(status -> loader.get());
+        long elapsed = System.nanoTime() - started;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        count(cacheName, "load");
+        if (value != null && !own.invalidated) {
+            cache.put(key, new RefreshableValue(value, startedAt, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            // evict мог пройти между проверкой и put: тогда убираем только что положенное значение
+            if (own.invalidated) {
+                cache.evict(key);
+            }
+        }
+        return value;
+    }
+
+    private void invalidate(Flight flight) {
+        Load running = inFlight.remove(flight);
+        if (running != null) {
+            running.invalidated = true;
+            log.debug("Загрузка записи {} в кэше {} устарела до завершения, результат не будет закэширован",
+                    flight.key(), flight.cacheName());
+        }
+    }
+
+    // XFetch: обновить заранее, если -loadMillis * beta * ln(U) >= оставшейся свежести
+    private boolean refreshEarly(RefreshableValue entry, long remainingMillis) {
+        double beta = properties.getEarlyRefreshBeta();
+        if (beta <= 0 || entry.getLoadMillis() <= 0) {
+            return false;
+        }
+        double gap = -entry.getLoadMillis() * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return gap >= remainingMillis;
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Записи прежнего формата (без обёртки) после обновления приложения считаются промахом
+    private static RefreshableValue lookup(Cache cache, Object key) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        return wrapper != null && wrapper.get() instanceof RefreshableValue entry ? entry : null;
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException("Кэш '" + cacheName + "' не найден");
+        }
+        return cache;
+    }
+
+    private void count(String cacheName, String result) {
+        Counter.builder("cache.singleflight")
+                .description("Обращения через single-flight по исходу: hit, early_refresh, stale, load, coalesced")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.rutmiit.cache;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rutmiit.models.entities.User;
+
+/**
+ * Сбрасывает кэш аутентификации при изменении или удалении пользователя (пароль, роль).
+ * Экземпляр создаётся Hibernate через контейнер бинов Spring.
+ * Запись удаляется сразу и повторно после коммита, чтобы параллельный вход
+ * не вернул в кэш данные, прочитанные до коммита. Остальным узлам удаление рассылается
+ * после коммита: раньше они прочитали бы из базы прежние данные.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final AuthenticationUserCache userCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        String username = user.getUsername();
+        userCache.removeUserFromCache(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCache.evictEverywhere(username);
+                }
+            });
+        } else {
+            userCache.evictEverywhere(username);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ru.rutmiit.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Хешированное колесо таймеров: срабатывания раскладываются по корзинам кольца,
+ * один поток раз в тик обходит только текущую корзину. Постановка и отмена - O(1)
+ * и не блокируют: новые записи передаются потоку колеса через очередь.
+ * <p>
+ * На ключ хранится не больше одной записи - повторная постановка заменяет прежний срок.
+ * Все ключи, наступившие за тик, передаются обработчику одним списком в потоке колеса.
+ */
+@Slf4j
+public class HashedTimingWheel<K> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout<K>>[] buckets;
+    private final Map<K, Timeout<K>> timeouts = new ConcurrentHashMap<>();
+    private final Queue<Timeout<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<K>> onExpired;
+    private final Thread worker;
+    // Соответствие между Instant и System.nanoTime, зафиксированное при создании колеса
+    private final Instant startInstant;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize, Consumer<List<K>> onExpired) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Длительность тика должна быть положительной");
+        }
+        int size = Integer.highestOneBit(Math.max(wheelSize, 1) * 2 - 1);
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.startInstant = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.worker = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Ставит (или переставляет) срабатывание ключа на указанный момент.
+     * Момент в прошлом срабатывает на ближайшем тике.
+     */
+    public void schedule(K key, Instant deadline) {
+        long deadlineNanos = Duration.between(startInstant, deadline).toNanos();
+        Timeout<K> timeout = new Timeout<>(key, deadlineNanos);
+        Timeout<K> previous = timeouts.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timeout);
+    }
+
+    public void cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    public boolean isScheduled(K key) {
+        return timeouts.containsKey(key);
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            transferPending();
+            List<K> expired = expireBucket(buckets[(int) (tick & mask)]);
+            tick++;
+            if (!expired.isEmpty()) {
+                try {
+                    onExpired.accept(expired);
+                } catch (RuntimeException e) {
+                    log.error("Ошибка обработки {} сработавших таймеров", expired.size(), e);
+                }
+            }
+        }
+    }
+
+    // Ждёт начала следующего тика; если поток отстал (долгий обработчик), тики догоняются без ожидания
+    private boolean waitForNextTick() {
+        long tickDeadline = tickNanos * (tick + 1);
+        while (running) {
+            long sleepNanos = tickDeadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void transferPending() {
+        for (Timeout<K> timeout; (timeout = pending.poll()) != null; ) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Номер тика, в конце которого наступает срок; просроченное попадает в текущую корзину
+            long dueTick = Math.max(Math.ceilDiv(timeout.deadlineNanos, tickNanos) - 1, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private List<K> expireBucket(List<Timeout<K>> bucket) {
+        List<K> expired = new ArrayList<>();
+        int kept = 0;
+        for (Timeout<K> timeout : bucket) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.remainingRounds <= 0) {
+                if (timeouts.remove(timeout.key, timeout)) {
+                    expired.add(timeout.key);
+                }
+            } else {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+        return expired;
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timeout(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
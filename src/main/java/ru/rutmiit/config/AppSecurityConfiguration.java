@@ -1,23 +1,48 @@
 package ru.rutmiit.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.DelegatingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 import org.springframework.security.web.context.DelegatingSecurityContextRepository;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import ru.rutmiit.concurrency.OffloadingPasswordEncoder;
+import ru.rutmiit.models.exceptions.PasswordHashingRejectedException;
+import ru.rutmiit.security.CookieSecurityContextRepository;
+import ru.rutmiit.security.SecurityContextCookieRefreshFilter;
+import ru.rutmiit.security.UpgradeDeferringAuthenticationProvider;
 import ru.rutmiit.services.AppUserDetailsService;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Slf4j
 @Configuration
 @EnableMethodSecurity
@@ -31,7 +56,8 @@ public class AppSecurityConfiguration {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, SecurityContextRepository securityContextRepository) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, SecurityContextRepository securityContextRepository,
+                                                   ObjectProvider<CookieSecurityContextRepository> cookieContextRepository) throws Exception {
         http
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
@@ -41,6 +67,9 @@ public class AppSecurityConfiguration {
                         .requestMatchers("/profile").authenticated()
                         .requestMatchers("/assignments/add", "/assignments/delete")
                         .hasAnyAuthority("ROLE_TEACHER")
+                        .requestMatchers("/submissions/export/**", "/api/assignments/bulk/**", "/api/submissions/grades/**",
+                                "/api/students/**")
+                        .hasAuthority("ROLE_TEACHER")
                         .requestMatchers("/a/add", "/companies/company-delete/*")
                         .hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated()
@@ -51,7 +80,7 @@ public class AppSecurityConfiguration {
                         .usernameParameter("username")
                         .passwordParameter("password")
                         .defaultSuccessUrl("/", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(loginFailureHandler())
                         .permitAll()
                 )
                 .rememberMe(remember -> remember
@@ -64,7 +93,7 @@ public class AppSecurityConfiguration {
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/?logout=true")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID", "remember-me")
+                        .deleteCookies(logoutCookies(cookieContextRepository.getIfAvailable()))
                         .permitAll()
                 )
                 .securityContext(securityContext -> securityContext
@@ -74,22 +103,80 @@ public class AppSecurityConfiguration {
                         .ignoringRequestMatchers("/actuator/**")
                 );
 
+        CookieSecurityContextRepository cookieRepository = cookieContextRepository.getIfAvailable();
+        if (cookieRepository != null) {
+            // Ни один компонент цепочки не должен создавать сессию: CSRF-токен - в cookie,
+            // сохранённый запрос не нужен (после входа всегда переход на главную)
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                    .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+                    .addFilterAfter(new SecurityContextCookieRefreshFilter(cookieRepository), SecurityContextHolderFilter.class);
+        }
+
         log.info("SecurityFilterChain настроен");
         return http.build();
     }
 
+    /**
+     * По умолчанию контекст хранится в HTTP-сессии; при app.security.context.store=cookie -
+     * в подписанной cookie (CookieSecurityContextConfiguration).
+     */
     @Bean
-    public SecurityContextRepository securityContextRepository() {
+    @Primary
+    public SecurityContextRepository securityContextRepository(
+            ObjectProvider<CookieSecurityContextRepository> cookieContextRepository) {
+        SecurityContextRepository cookieRepository = cookieContextRepository.getIfAvailable();
         return new DelegatingSecurityContextRepository(
                 new RequestAttributeSecurityContextRepository(),
-                new HttpSessionSecurityContextRepository()
+                cookieRepository != null ? cookieRepository : new HttpSessionSecurityContextRepository()
         );
     }
 
+    private static String[] logoutCookies(CookieSecurityContextRepository cookieRepository) {
+        return cookieRepository != null
+                ? new String[]{"JSESSIONID", "remember-me", cookieRepository.getCookieName()}
+                : new String[]{"JSESSIONID", "remember-me"};
+    }
+
+    /**
+     * BCrypt в отдельном ограниченном пуле. Новые хеши пишутся с префиксом {bcrypt};
+     * хеши без префикса и с устаревшей стоимостью перехешируются при успешном входе
+     * (AppUserDetailsService.updatePassword).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${app.security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${app.security.password.threads:0}") int threads,
+                                           @Value("${app.security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${app.security.password.max-wait:3s}") Duration maxWait) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Создание PasswordEncoder BCrypt (стоимость {}, потоков {}, очередь {})", strength, poolSize, queueCapacity);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.<String, PasswordEncoder>of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadingPasswordEncoder(delegating, poolSize, queueCapacity, maxWait, meterRegistry);
+    }
+
+    /**
+     * Проверка пароля с обновлением хеша, которое при перегрузке пула хеширования
+     * откладывается, а не отклоняет вход с верным паролем.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        log.info("Создание PasswordEncoder BCrypt");
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
+        return new UpgradeDeferringAuthenticationProvider(userDetailsService, userDetailsService, passwordEncoder);
+    }
+
+    // Перегрузка пула хеширования - 503 с Retry-After, а не "неверный пароль"
+    private AuthenticationFailureHandler loginFailureHandler() {
+        LinkedHashMap<Class<? extends AuthenticationException>, AuthenticationFailureHandler> handlers = new LinkedHashMap<>();
+        handlers.put(PasswordHashingRejectedException.class, (request, response, exception) -> {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+        });
+        return new DelegatingAuthenticationFailureHandler(handlers,
+                new SimpleUrlAuthenticationFailureHandler("/login?error=true"));
     }
 
     @Bean
@@ -1,8 +1,6 @@
 package ru.rutmiit.config;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
@@ -10,9 +8,4 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 @EnableCaching
 @EnableJpaAuditing
 public class BeanConfiguration {
-
-    @Bean
-    public ModelMapper mapper() {
-        return new ModelMapper();
-    }
 }
@@ -0,0 +1,35 @@
+package ru.rutmiit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.rutmiit.security.CookieSecurityContextRepository;
+import ru.rutmiit.security.SecurityContextCookieCodec;
+import ru.rutmiit.services.AppUserDetailsService;
+
+import java.time.Duration;
+
+/**
+ * Режим без HTTP-сессий (app.security.context.store=cookie): контекст безопасности
+ * и CSRF-токен хранятся в cookie, исходный запрос перед входом не сохраняется (NullRequestCache).
+ * Подключение к цепочке фильтров - в {@link AppSecurityConfiguration}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.security.context.store", havingValue = "cookie")
+public class CookieSecurityContextConfiguration {
+
+    @Bean
+    public CookieSecurityContextRepository cookieSecurityContextRepository(
+            AppUserDetailsService userDetailsService,
+            @Value("${app.security.context.cookie.name:AUTH}") String cookieName,
+            @Value("${app.security.context.cookie.ttl:PT30M}") Duration ttl,
+            @Value("${app.security.context.cookie.secret:}") String secret,
+            @Value("${app.security.context.cookie.encrypt:false}") boolean encrypt) {
+        log.info("Контекст безопасности хранится в cookie {} (срок {}, шифрование: {})", cookieName, ttl, encrypt);
+        return new CookieSecurityContextRepository(new SecurityContextCookieCodec(secret, encrypt),
+                userDetailsService, cookieName, ttl);
+    }
+}
@@ -4,22 +4,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import ru.rutmiit.cache.BinaryCacheValueSerializer;
+import ru.rutmiit.cache.CacheInvalidationBus;
+import ru.rutmiit.cache.CacheValueCodecs;
+import ru.rutmiit.cache.NearCacheProperties;
+import ru.rutmiit.cache.TwoLevelCacheManager;
 
 import java.time.Duration;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(NearCacheProperties.class)
 public class RedisConfig {
 
     @Value("${spring.data.redis.host}")
@@ -34,8 +51,10 @@ public class RedisConfig {
         return new LettuceConnectionFactory(configuration);
     }
 
-    @Bean
-    @Primary
+    /**
+     * JSON значений кэша с именами классов. Не бин: иначе он заменил бы ObjectMapper Spring MVC,
+     * и JSON API отдавали бы и принимали тела в формате ["класс", {...}] с произвольными типами от клиента.
+     */
     public ObjectMapper redisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -50,13 +69,54 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheConfiguration defaultCacheConfig(ObjectMapper redisObjectMapper) {
+    public RedisCacheConfiguration defaultCacheConfig(NearCacheProperties properties) {
         StringRedisSerializer keySerializer = new StringRedisSerializer();
-        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        RedisSerializer<Object> valueSerializer = properties.getValueCodec() == NearCacheProperties.ValueCodec.BINARY
+                ? new BinaryCacheValueSerializer(CacheValueCodecs.all(), properties.getCompressionThreshold())
+                : new GenericJackson2JsonRedisSerializer(redisObjectMapper());
 
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(2))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(keySerializer))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
     }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                     NearCacheProperties properties) {
+        return new CacheInvalidationBus(
+                properties.isRedisEnabled() ? redisTemplate.getObject() : null,
+                properties.getInvalidationChannel());
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheConfiguration defaultCacheConfig,
+                                     NearCacheProperties properties,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     MeterRegistry meterRegistry) {
+        CacheManager remoteCacheManager;
+        if (properties.isRedisEnabled()) {
+            RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                    .cacheDefaults(defaultCacheConfig)
+                    .build();
+            redisCacheManager.afterPropertiesSet();
+            remoteCacheManager = redisCacheManager;
+        } else {
+            // Локальная замена Redis: L2 живёт в памяти процесса
+            remoteCacheManager = new ConcurrentMapCacheManager();
+        }
+        return new TwoLevelCacheManager(remoteCacheManager, properties, cacheInvalidationBus, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache", name = "redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus cacheInvalidationBus,
+                                                                            NearCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
 }
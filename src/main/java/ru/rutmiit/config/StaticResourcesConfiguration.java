@@ -0,0 +1,101 @@
+package ru.rutmiit.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Статика из classpath:/static с отпечатками содержимого в URL.
+ * <ul>
+ *     <li>ссылки @{/css/...} в шаблонах переписываются в /css/app-&lt;md5&gt;.css
+ *     ({@link ResourceUrlEncodingFilter}); хеш считается один раз и кэшируется цепочкой;</li>
+ *     <li>версионированные URL отдаются с Cache-Control: immutable на год, прочие - no-cache;</li>
+ *     <li>заранее сжатые при сборке .br/.gz выбираются по Accept-Encoding, сжатия на лету нет;</li>
+ *     <li>запросы к статике не проходят цепочку фильтров Spring Security.</li>
+ * </ul>
+ */
+@Slf4j
+@Configuration
+public class StaticResourcesConfiguration implements WebMvcConfigurer {
+
+    static final String[] ASSET_DIRECTORIES = {"css", "pic"};
+
+    // Имя файла с отпечатком ContentVersionStrategy: name-<32 hex>.ext
+    private static final Pattern VERSIONED = Pattern.compile("-[0-9a-f]{32}\\.[^/]+$");
+
+    private final CacheControl immutable;
+
+    public StaticResourcesConfiguration(@Value("${app.static.immutable-max-age:365d}") Duration maxAge) {
+        this.immutable = CacheControl.maxAge(maxAge).cachePublic().immutable();
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            // Cache-Control не задаётся здесь: он зависит от наличия отпечатка (см. addInterceptors)
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                boolean versioned = VERSIONED.matcher(request.getRequestURI()).find();
+                response.setHeader(HttpHeaders.CACHE_CONTROL,
+                        versioned ? immutable.getHeaderValue() : CacheControl.noCache().getHeaderValue());
+                return true;
+            }
+        }).addPathPatterns(assetPatterns());
+    }
+
+    /**
+     * Подменяет в response.encodeURL() ссылки на статику версионированными.
+     */
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        FilterRegistrationBean<ResourceUrlEncodingFilter> registration =
+                new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+        registration.setName("resourceUrlEncodingFilter");
+        return registration;
+    }
+
+    /**
+     * Статика публична и не зависит от пользователя: ни контекст безопасности, ни CSRF,
+     * ни заголовки Spring Security для неё не нужны.
+     */
+    @Bean
+    public WebSecurityCustomizer staticResourcesSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(assetPatterns());
+    }
+
+    private static String[] assetPatterns() {
+        String[] patterns = new String[ASSET_DIRECTORIES.length];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = "/" + ASSET_DIRECTORIES[i] + "/**";
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.rutmiit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.rutmiit.views.fragments.FragmentCache;
+import ru.rutmiit.views.fragments.FragmentCacheDialect;
+
+import java.time.Duration;
+
+/**
+ * Кэш отрисованных фрагментов шаблонов; диалект подхватывается автоконфигурацией Thymeleaf.
+ */
+@Configuration
+public class ThymeleafConfiguration {
+
+    @Bean
+    public FragmentCache fragmentCache(MeterRegistry meterRegistry,
+                                       @Value("${app.templates.fragment-cache.max-size:5000}") long maxSize,
+                                       @Value("${app.templates.fragment-cache.ttl:10m}") Duration ttl) {
+        return new FragmentCache(maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public FragmentCacheDialect fragmentCacheDialect(FragmentCache fragmentCache) {
+        return new FragmentCacheDialect(fragmentCache);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.rutmiit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import ru.rutmiit.concurrency.BoundedDataSource;
+import ru.rutmiit.concurrency.VirtualThreadPinningMonitor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков включается штатным свойством spring.threads.virtual.enabled
+ * (Tomcat, @Async и планировщик). Эта конфигурация добавляет к нему ограничение
+ * одновременных обращений к пулу соединений и диагностику закрепления потоков.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                // По умолчанию разрешений столько же, сколько соединений в пуле
+                int maxConcurrency = environment.getProperty("app.virtual-threads.jdbc.max-concurrency",
+                        Integer.class, hikari.getMaximumPoolSize());
+                Duration acquireTimeout = environment.getProperty("app.virtual-threads.jdbc.acquire-timeout",
+                        Duration.class, Duration.ofSeconds(5));
+                log.info("Пул соединений '{}' ограничен {} одновременными получениями (таймаут {} мс)",
+                        beanName, maxConcurrency, acquireTimeout.toMillis());
+                return new BoundedDataSource(hikari, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BoundedDataSource bounded) {
+                Gauge.builder("jdbc.connections.bounded.waiting", bounded, BoundedDataSource::getQueueLength)
+                        .description("Потоки, ожидающие разрешения на получение соединения")
+                        .register(registry);
+                Gauge.builder("jdbc.connections.bounded.available", bounded, BoundedDataSource::getAvailablePermits)
+                        .description("Свободные разрешения на получение соединения")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
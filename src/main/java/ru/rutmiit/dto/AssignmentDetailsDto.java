@@ -15,4 +15,5 @@ public class AssignmentDetailsDto {
     private String teacherName;
     private List<StudentInfoDto> assignedStudents;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
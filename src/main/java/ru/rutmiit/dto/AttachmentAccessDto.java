@@ -0,0 +1,15 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Вложение сдачи и логины тех, кому разрешено его скачивать.
+ */
+@Data
+@AllArgsConstructor
+public class AttachmentAccessDto {
+    private String attachmentUrl;
+    private String studentUsername;
+    private String teacherUsername;
+}
@@ -0,0 +1,19 @@
+package ru.rutmiit.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkExtendDeadlineDto {
+    @NotEmpty(message = "Укажите хотя бы одно задание!")
+    private List<String> assignmentIds;
+
+    @NotNull(message = "Укажите, на сколько продлить дедлайн!")
+    @Min(value = 1, message = "Продление должно быть не меньше минуты")
+    @Max(value = 525600, message = "Продление не может превышать год")
+    private Integer minutes;
+}
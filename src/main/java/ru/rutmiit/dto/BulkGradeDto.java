@@ -0,0 +1,15 @@
+package ru.rutmiit.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkGradeDto {
+    @NotEmpty(message = "Список оценок пуст")
+    @Size(max = 5000, message = "Не более 5000 оценок за раз")
+    private List<@Valid BulkGradeItemDto> grades;
+}
@@ -0,0 +1,22 @@
+package ru.rutmiit.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkGradeItemDto {
+    @NotBlank(message = "Не указана сдача")
+    private String submissionId;
+
+    @NotNull(message = "Оценка обязательна!")
+    @Min(value = 1, message = "Оценка должна быть от 1 до 5")
+    @Max(value = 5, message = "Оценка должна быть от 1 до 5")
+    private Integer grade;
+
+    @Size(max = 1000, message = "Комментарий не длиннее 1000 символов")
+    private String teacherComment;
+}
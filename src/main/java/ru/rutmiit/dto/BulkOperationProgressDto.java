@@ -0,0 +1,39 @@
+package ru.rutmiit.dto;
+
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ход выполнения массовой операции; обновляется по мере обработки пачек.
+ */
+@Getter
+public class BulkOperationProgressDto {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final String operationId;
+    private final String type;
+    private final String owner;
+    private final long total;
+    private final AtomicLong processed = new AtomicLong();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile State state = State.RUNNING;
+    private volatile LocalDateTime finishedAt;
+
+    public BulkOperationProgressDto(String operationId, String type, String owner, long total) {
+        this.operationId = operationId;
+        this.type = type;
+        this.owner = owner;
+        this.total = total;
+    }
+
+    public void advance(long delta) {
+        processed.addAndGet(delta);
+    }
+
+    public void finish(State state) {
+        this.state = state;
+        this.finishedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkOperationResultDto {
+    private String operationId;
+    private long requested;
+    private long affected;
+    // Задания, которых нет или которые принадлежат другому преподавателю
+    private List<String> rejectedAssignmentIds;
+}
@@ -0,0 +1,14 @@
+package ru.rutmiit.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkStudentsDto {
+    @NotEmpty(message = "Укажите хотя бы одно задание!")
+    private List<String> assignmentIds;
+
+    @NotEmpty(message = "Укажите хотя бы одного студента!")
+    private List<String> studentIds;
+}
@@ -0,0 +1,21 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Отчёт массового выставления оценок. Если хотя бы одна строка содержит ошибку,
+ * ничего не применяется (applied = false), а в отчёте перечислены все ошибки.
+ */
+@Data
+@AllArgsConstructor
+public class GradeImportReportDto {
+    private boolean applied;
+    private int total;
+    private int updated;
+    private int skipped;
+    private int failed;
+    private List<GradeImportRowDto> rows;
+}
@@ -0,0 +1,23 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат обработки одной строки массового выставления оценок.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeImportRowDto {
+
+    public enum Status { UPDATED, SKIPPED, ERROR }
+
+    private int line;
+    private String submissionId;
+    private String username;
+    private Integer grade;
+    private Status status;
+    private String message;
+}
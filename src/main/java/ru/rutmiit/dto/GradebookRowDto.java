@@ -0,0 +1,24 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.rutmiit.models.enums.SubmissionStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки журнала оценок: назначенный студент и его сдача (если есть).
+ * Текст решения сюда намеренно не попадает.
+ */
+@Data
+@AllArgsConstructor
+public class GradebookRowDto {
+    private String assignmentTitle;
+    private LocalDateTime deadline;
+    private String studentUsername;
+    private String studentFullName;
+    private SubmissionStatus status;
+    private Integer grade;
+    private LocalDateTime submittedAt;
+    private LocalDateTime gradedAt;
+    private String teacherComment;
+}
@@ -0,0 +1,17 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версия списка для условного GET: последнее изменение среди строк и их число
+ * (число ловит удаление, которое не сдвигает максимум).
+ */
+@Data
+@AllArgsConstructor
+public class PageVersionDto {
+    private LocalDateTime lastModified;
+    private Long count;
+}
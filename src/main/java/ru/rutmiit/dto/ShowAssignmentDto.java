@@ -1,10 +1,13 @@
 package ru.rutmiit.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.rutmiit.models.enums.AssignmentStatus;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Data
+@NoArgsConstructor
 public class ShowAssignmentDto {
     private String id;
     private String title;
@@ -13,6 +16,21 @@ public class ShowAssignmentDto {
     private String status;
     private String teacherName;
     private int studentCount;
+    private LocalDateTime updatedAt;
+
+    // Используется в JPQL-проекциях AssignmentRepository (SELECT new ...)
+    public ShowAssignmentDto(String id, String title, String description, LocalDateTime deadline,
+                             AssignmentStatus status, String teacherName, Number studentCount,
+                             LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.deadline = deadline;
+        this.status = status != null ? status.name() : null;
+        this.teacherName = teacherName;
+        this.studentCount = studentCount != null ? studentCount.intValue() : 0;
+        this.updatedAt = updatedAt;
+    }
     
     public String getFormattedDeadline() {
         if (deadline == null) return "";
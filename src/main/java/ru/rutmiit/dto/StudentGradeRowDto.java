@@ -0,0 +1,22 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.rutmiit.models.enums.SubmissionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка журнала оценок студента; текст решения не загружается.
+ */
+@Data
+@AllArgsConstructor
+public class StudentGradeRowDto {
+    private String submissionId;
+    private String assignmentTitle;
+    private LocalDateTime submittedAt;
+    private Integer grade;
+    private String teacherComment;
+    private SubmissionStatus status;
+    private boolean hasAttachment;
+}
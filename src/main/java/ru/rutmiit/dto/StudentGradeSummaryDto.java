@@ -0,0 +1,25 @@
+package ru.rutmiit.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сводка успеваемости студента, считается одним агрегатным запросом и кешируется.
+ */
+@Data
+@NoArgsConstructor
+public class StudentGradeSummaryDto {
+    private long totalSubmissions;
+    private long gradedSubmissions;
+    private long lateSubmissions;
+    private Double averageGrade;
+
+    // Для JPQL-проекции: на пустой выборке SUM возвращает null
+    public StudentGradeSummaryDto(Number totalSubmissions, Number gradedSubmissions,
+                                  Number lateSubmissions, Number averageGrade) {
+        this.totalSubmissions = totalSubmissions == null ? 0 : totalSubmissions.longValue();
+        this.gradedSubmissions = gradedSubmissions == null ? 0 : gradedSubmissions.longValue();
+        this.lateSubmissions = lateSubmissions == null ? 0 : lateSubmissions.longValue();
+        this.averageGrade = averageGrade == null ? null : averageGrade.doubleValue();
+    }
+}
@@ -1,12 +1,23 @@
 package ru.rutmiit.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StudentInfoDto {
     private String id;
     private String fullName;
     private String username;
     private String submissionStatus;
     private Integer grade;
-}
\ No newline at end of file
+
+    // Для JPQL-проекций без статуса сдачи (поиск и выбор студентов)
+    public StudentInfoDto(String id, String fullName, String username) {
+        this.id = id;
+        this.fullName = fullName;
+        this.username = username;
+    }
+}
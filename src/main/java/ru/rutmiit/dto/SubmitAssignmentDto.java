@@ -2,7 +2,6 @@ package ru.rutmiit.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
-import org.springframework.web.multipart.MultipartFile;
 
 @Data
 public class SubmitAssignmentDto {
@@ -12,6 +11,9 @@ public class SubmitAssignmentDto {
     private String comment;
     private String attachmentUrl;
 
+    // Идентификатор завершённой загрузки вложения (см. /api/uploads)
+    private String uploadId;
+
     public String getAttachmentUrl() {
         return attachmentUrl;
     }
@@ -0,0 +1,20 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class SystemStatisticsDto {
+    // Ключи - названия статусов, чтобы к ним можно было обращаться из шаблона
+    private Map<String, Long> assignmentsByStatus;
+    private Map<String, Long> submissionsByStatus;
+    private long totalAssignments;
+    private long totalSubmissions;
+    private long gradedSubmissions;
+    private double averageGrade;
+    private LocalDateTime reconciledAt;
+}
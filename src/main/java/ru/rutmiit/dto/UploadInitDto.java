@@ -0,0 +1,24 @@
+package ru.rutmiit.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Запрос на начало загрузки файла по частям.
+ */
+@Data
+public class UploadInitDto {
+    @NotBlank(message = "Имя файла обязательно")
+    private String fileName;
+
+    @NotNull(message = "Размер файла обязателен")
+    @Positive(message = "Файл не может быть пустым")
+    private Long size;
+
+    // SHA-256 всего файла в hex; если передан, сверяется при завершении
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Некорректная контрольная сумма SHA-256")
+    private String sha256;
+}
@@ -0,0 +1,23 @@
+package ru.rutmiit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Состояние загрузки: по списку недостающих частей клиент продолжает прерванную загрузку.
+ */
+@Data
+@AllArgsConstructor
+public class UploadStatusDto {
+    private String uploadId;
+    private String fileName;
+    private long size;
+    private int chunkSize;
+    private int totalChunks;
+    private int receivedChunks;
+    private List<Integer> missingChunks;
+    private boolean completed;
+    private String sha256;
+}
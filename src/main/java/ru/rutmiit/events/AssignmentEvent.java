@@ -0,0 +1,31 @@
+package ru.rutmiit.events;
+
+import ru.rutmiit.models.enums.AssignmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение задания; публикуется внутри транзакции, слушатели обрабатывают его после коммита.
+ * Для DEADLINE_CHANGED статусы не заполняются, deadline - новый срок сдачи.
+ */
+public record AssignmentEvent(String assignmentId, Type type, AssignmentStatus previousStatus,
+                              AssignmentStatus status, LocalDateTime deadline) {
+
+    public enum Type { CREATED, DELETED, STATUS_CHANGED, DEADLINE_CHANGED }
+
+    public static AssignmentEvent created(String assignmentId, AssignmentStatus status, LocalDateTime deadline) {
+        return new AssignmentEvent(assignmentId, Type.CREATED, null, status, deadline);
+    }
+
+    public static AssignmentEvent deleted(String assignmentId, AssignmentStatus status) {
+        return new AssignmentEvent(assignmentId, Type.DELETED, status, null, null);
+    }
+
+    public static AssignmentEvent statusChanged(String assignmentId, AssignmentStatus previousStatus, AssignmentStatus status) {
+        return new AssignmentEvent(assignmentId, Type.STATUS_CHANGED, previousStatus, status, null);
+    }
+
+    public static AssignmentEvent deadlineChanged(String assignmentId, LocalDateTime deadline) {
+        return new AssignmentEvent(assignmentId, Type.DEADLINE_CHANGED, null, null, deadline);
+    }
+}
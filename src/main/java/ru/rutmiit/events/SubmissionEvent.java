@@ -0,0 +1,30 @@
+package ru.rutmiit.events;
+
+import ru.rutmiit.models.enums.SubmissionStatus;
+
+/**
+ * Изменение сдачи с предыдущими и новыми значениями статуса и оценки,
+ * чтобы слушатели могли обновлять агрегаты по разнице, не перечитывая данные.
+ */
+public record SubmissionEvent(String submissionId, String assignmentId, String studentUsername, Type type,
+                              SubmissionStatus previousStatus, SubmissionStatus status,
+                              Integer previousGrade, Integer grade) {
+
+    public enum Type { SUBMITTED, GRADED, DELETED }
+
+    public static SubmissionEvent submitted(String submissionId, String assignmentId, String studentUsername,
+                                            SubmissionStatus status) {
+        return new SubmissionEvent(submissionId, assignmentId, studentUsername, Type.SUBMITTED, null, status, null, null);
+    }
+
+    public static SubmissionEvent graded(String submissionId, String assignmentId, String studentUsername,
+                                         SubmissionStatus previousStatus, Integer previousGrade, Integer grade) {
+        return new SubmissionEvent(submissionId, assignmentId, studentUsername, Type.GRADED,
+                previousStatus, SubmissionStatus.GRADED, previousGrade, grade);
+    }
+
+    public static SubmissionEvent deleted(String submissionId, String assignmentId, String studentUsername,
+                                          SubmissionStatus status, Integer grade) {
+        return new SubmissionEvent(submissionId, assignmentId, studentUsername, Type.DELETED, status, null, grade, null);
+    }
+}
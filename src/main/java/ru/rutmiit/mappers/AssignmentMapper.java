@@ -0,0 +1,38 @@
+package ru.rutmiit.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.rutmiit.dto.AssignmentDetailsDto;
+import ru.rutmiit.dto.CreateAssignmentDto;
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.dto.StudentInfoDto;
+import ru.rutmiit.models.entities.Assignment;
+import ru.rutmiit.models.entities.User;
+
+/**
+ * Преобразования заданий; реализация генерируется MapStruct при сборке (обычные геттеры и сеттеры,
+ * без рефлексии). Студенты задания читаются из коллекции, поэтому нужна открытая сессия.
+ */
+@Mapper(config = MappingConfig.class)
+public interface AssignmentMapper {
+
+    @Mapping(target = "teacherName", source = "teacher.fullName")
+    @Mapping(target = "studentCount", expression = "java(assignment.getAssignedStudents().size())")
+    ShowAssignmentDto toShowDto(Assignment assignment);
+
+    @Mapping(target = "teacherName", source = "teacher.fullName")
+    AssignmentDetailsDto toDetailsDto(Assignment assignment);
+
+    // Статус сдачи и оценка намеренно не заполняются и всегда null: карточка задания и список студентов
+    // кэшируются по updated_at задания, а сдачи его не меняют (так было и при ModelMapper)
+    @Mapping(target = "submissionStatus", ignore = true)
+    @Mapping(target = "grade", ignore = true)
+    StudentInfoDto toStudentInfo(User student);
+
+    // Преподаватель и студенты назначаются сервисом, статус по умолчанию - ACTIVE
+    @Mapping(target = "status", ignore = true)
+    @Mapping(target = "teacher", ignore = true)
+    @Mapping(target = "assignedStudents", ignore = true)
+    @Mapping(target = "submissions", ignore = true)
+    Assignment toEntity(CreateAssignmentDto dto);
+}
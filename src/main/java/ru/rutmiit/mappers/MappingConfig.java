@@ -0,0 +1,16 @@
+package ru.rutmiit.mappers;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Общие настройки мапперов: Spring-бины, а поле DTO, для которого не задан источник
+ * и которое не помечено ignore, - ошибка компиляции, а не тихий null во время работы.
+ */
+@MapperConfig(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.ERROR
+)
+public interface MappingConfig {
+}
@@ -9,7 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "assignments")
+@Table(name = "assignments", indexes = {
+        // Составные индексы под разрешённые ключи сортировки (см. AssignmentSortKey)
+        @Index(name = "idx_assignments_deadline_id", columnList = "deadline, id"),
+        @Index(name = "idx_assignments_title_id", columnList = "title, id"),
+        // Выборка ближайших дедлайнов активных заданий (DeadlineExpiryService)
+        @Index(name = "idx_assignments_status_deadline", columnList = "status, deadline")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,7 +47,8 @@ public class Assignment extends BaseEntity {
     @JoinTable(
             name = "assignment_students",
             joinColumns = @JoinColumn(name = "assignment_id"),
-            inverseJoinColumns = @JoinColumn(name = "student_id")
+            inverseJoinColumns = @JoinColumn(name = "student_id"),
+            indexes = @Index(name = "idx_assignment_students_student", columnList = "student_id, assignment_id")
     )
     @Builder.Default
     private List<User> assignedStudents = new ArrayList<>();
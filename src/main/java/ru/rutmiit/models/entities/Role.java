@@ -2,16 +2,21 @@ package ru.rutmiit.models.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.rutmiit.models.enums.UserRole;
 
 @Entity
 @Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Role.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Role extends BaseEntity {
 
+    public static final String CACHE_REGION = "roles";
+
     @Enumerated(EnumType.STRING)
     @Column(name = "user_role", nullable = false, unique = true)
     private UserRole userRole; // Поле называется userRole, не role
@@ -7,7 +7,10 @@ import ru.rutmiit.models.enums.SubmissionStatus;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+        // Журнал оценок студента: фильтр по студенту и сортировка по дате сдачи
+        @Index(name = "idx_submissions_student_submitted", columnList = "student_id, submitted_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
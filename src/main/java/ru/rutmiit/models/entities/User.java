@@ -2,6 +2,9 @@ package ru.rutmiit.models.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.rutmiit.cache.UserCacheEvictionListener;
 import ru.rutmiit.models.enums.UserRole;
 
 import java.util.ArrayList;
@@ -9,6 +12,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@EntityListeners(UserCacheEvictionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +21,8 @@ import java.util.List;
 @EqualsAndHashCode(callSuper = true)
 public class User extends BaseEntity {
 
+    public static final String CACHE_REGION = "users";
+
     @Column(nullable = false, unique = true, length = 50)
     private String username;
 
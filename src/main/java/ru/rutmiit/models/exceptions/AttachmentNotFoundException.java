@@ -0,0 +1,7 @@
+package ru.rutmiit.models.exceptions;
+
+public class AttachmentNotFoundException extends RuntimeException {
+    public AttachmentNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.rutmiit.models.exceptions;
+
+/**
+ * Часть загрузки повреждена при передаче: её можно отправить повторно.
+ */
+public class ChunkChecksumMismatchException extends RuntimeException {
+    public ChunkChecksumMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.rutmiit.models.exceptions;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Пул хеширования паролей перегружен. Наследует AuthenticationServiceException,
+ * чтобы при входе попадать в обработчик неудачной аутентификации, а не в общий 500.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.rutmiit.models.exceptions;
+
+public class UploadNotFoundException extends RuntimeException {
+    public UploadNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -2,24 +2,69 @@ package ru.rutmiit.repositories;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.rutmiit.dto.PageVersionDto;
+import ru.rutmiit.dto.ShowAssignmentDto;
 import ru.rutmiit.models.entities.Assignment;
 import ru.rutmiit.models.entities.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AssignmentRepository extends JpaRepository<Assignment, String> {
-    
-    List<Assignment> findByTitleContainingIgnoreCase(String title);
-    
-    Page<Assignment> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+public interface AssignmentRepository extends JpaRepository<Assignment, String>, AssignmentRepositoryCustom {
+
+    // Карточки заданий одним запросом: имя преподавателя через JOIN, число студентов считает БД.
+    // Slice вместо Page - без COUNT(*) на каждую страницу
+    @Query("SELECT new ru.rutmiit.dto.ShowAssignmentDto(" +
+           "a.id, a.title, a.description, a.deadline, a.status, t.fullName, SIZE(a.assignedStudents), a.updatedAt) " +
+           "FROM Assignment a JOIN a.teacher t")
+    Slice<ShowAssignmentDto> findAllCards(Pageable pageable);
+
+    @Query("SELECT new ru.rutmiit.dto.ShowAssignmentDto(" +
+           "a.id, a.title, a.description, a.deadline, a.status, t.fullName, SIZE(a.assignedStudents), a.updatedAt) " +
+           "FROM Assignment a JOIN a.teacher t JOIN a.assignedStudents s " +
+           "WHERE s.username = :username")
+    Slice<ShowAssignmentDto> findCardsByStudentUsername(@Param("username") String username, Pageable pageable);
+
+    @Query("SELECT new ru.rutmiit.dto.ShowAssignmentDto(" +
+           "a.id, a.title, a.description, a.deadline, a.status, t.fullName, SIZE(a.assignedStudents), a.updatedAt) " +
+           "FROM Assignment a JOIN a.teacher t " +
+           "WHERE a.id IN :ids")
+    List<ShowAssignmentDto> findCardsByIds(@Param("ids") Collection<String> ids);
+
+    // Версии страниц для условного GET: только время изменения, без загрузки сущностей
+    @Query("SELECT COALESCE(a.updatedAt, a.createdAt) FROM Assignment a WHERE a.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") String id);
+
+    @Query("SELECT new ru.rutmiit.dto.PageVersionDto(MAX(COALESCE(a.updatedAt, a.createdAt)), COUNT(a)) " +
+           "FROM Assignment a JOIN a.assignedStudents s " +
+           "WHERE s.username = :username")
+    PageVersionDto findVersionByStudentUsername(@Param("username") String username);
+
+    // Полнотекстовый поиск: search_vector (tsvector, GIN) с русской и английской морфологией
+    // плюс нечёткое совпадение по триграммам названия (pg_trgm). Колонка и индексы создаются в import.sql
+    @Query(value = "SELECT a.id FROM assignments a " +
+                   "CROSS JOIN (SELECT websearch_to_tsquery('russian', :query) || " +
+                   "websearch_to_tsquery('english', :query) AS q) tq " +
+                   "WHERE a.search_vector @@ tq.q OR :query <% a.title " +
+                   "ORDER BY ts_rank(a.search_vector, tq.q) + word_similarity(:query, a.title) DESC, a.id",
+           countQuery = "SELECT COUNT(*) FROM assignments a " +
+                        "CROSS JOIN (SELECT websearch_to_tsquery('russian', :query) || " +
+                        "websearch_to_tsquery('english', :query) AS q) tq " +
+                        "WHERE a.search_vector @@ tq.q OR :query <% a.title",
+           nativeQuery = true)
+    Page<String> searchIds(@Param("query") String query, Pageable pageable);
     
     List<Assignment> findByTeacher(User teacher);
+
+    boolean existsByIdAndTeacherUsername(String id, String teacherUsername);
     
     Page<Assignment> findByTeacher(User teacher, Pageable pageable);
     
@@ -45,12 +90,6 @@ public interface AssignmentRepository extends JpaRepository<Assignment, String>
     @Query("SELECT a FROM Assignment a WHERE a.status = 'ACTIVE' ORDER BY a.deadline ASC")
     List<Assignment> findActiveAssignmentsOrderByDeadline();
     
-    @Query("SELECT a FROM Assignment a WHERE " +
-           "(LOWER(a.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(a.description) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
-           "a.status = 'ACTIVE'")
-    List<Assignment> searchActiveAssignments(@Param("search") String search);
-    
     @Query("SELECT COUNT(a) FROM Assignment a WHERE a.status = :status")
     long countByStatus(@Param("status") String status);
     
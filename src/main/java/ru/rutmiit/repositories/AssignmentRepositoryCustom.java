@@ -0,0 +1,16 @@
+package ru.rutmiit.repositories;
+
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.utils.pagination.KeysetCursor;
+
+import java.util.List;
+
+public interface AssignmentRepositoryCustom {
+
+    /**
+     * Карточки заданий строго после позиции курсора в порядке (ключ сортировки, id).
+     *
+     * @param studentUsername если задан - только задания, назначенные этому студенту
+     */
+    List<ShowAssignmentDto> findCardsAfter(KeysetCursor cursor, String studentUsername, int limit);
+}
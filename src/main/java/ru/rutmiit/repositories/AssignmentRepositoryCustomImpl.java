@@ -0,0 +1,43 @@
+package ru.rutmiit.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import ru.rutmiit.dto.ShowAssignmentDto;
+import ru.rutmiit.utils.pagination.KeysetCursor;
+
+import java.util.List;
+
+public class AssignmentRepositoryCustomImpl implements AssignmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ShowAssignmentDto> findCardsAfter(KeysetCursor cursor, String studentUsername, int limit) {
+        // Имя свойства берётся только из AssignmentSortKey, а не из запроса пользователя
+        String property = "a." + cursor.sortKey().getProperty();
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT new ru.rutmiit.dto.ShowAssignmentDto(")
+                .append("a.id, a.title, a.description, a.deadline, a.status, t.fullName, SIZE(a.assignedStudents), a.updatedAt) ")
+                .append("FROM Assignment a JOIN a.teacher t ");
+        if (studentUsername != null) {
+            jpql.append("JOIN a.assignedStudents s WHERE s.username = :username AND ");
+        } else {
+            jpql.append("WHERE ");
+        }
+        jpql.append("(").append(property).append(" > :value OR (")
+                .append(property).append(" = :value AND a.id > :id)) ")
+                .append("ORDER BY ").append(property).append(" ASC, a.id ASC");
+
+        TypedQuery<ShowAssignmentDto> query = entityManager.createQuery(jpql.toString(), ShowAssignmentDto.class)
+                .setParameter("value", cursor.value())
+                .setParameter("id", cursor.id())
+                .setMaxResults(limit);
+        if (studentUsername != null) {
+            query.setParameter("username", studentUsername);
+        }
+        return query.getResultList();
+    }
+}
@@ -64,4 +64,7 @@ public interface StatisticsRepository extends JpaRepository<Assignment, String>
            "SUM(CASE WHEN a.status = 'EXPIRED' THEN 1 ELSE 0 END) as expired " +
            "FROM Assignment a")
     Map<String, Long> getAssignmentStatistics();
+
+    @Query("SELECT COALESCE(SUM(s.grade), 0) as gradeSum, COUNT(s.grade) as gradeCount FROM Submission s")
+    Map<String, Long> getGradeTotals();
 }
\ No newline at end of file
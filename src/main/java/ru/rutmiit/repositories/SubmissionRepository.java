@@ -3,9 +3,16 @@ package ru.rutmiit.repositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.rutmiit.dto.AttachmentAccessDto;
+import ru.rutmiit.dto.GradebookRowDto;
+import ru.rutmiit.dto.StudentGradeRowDto;
+import ru.rutmiit.dto.StudentGradeSummaryDto;
 import ru.rutmiit.models.entities.Assignment;
 import ru.rutmiit.models.entities.Submission;
 import ru.rutmiit.models.entities.User;
@@ -13,10 +20,56 @@ import ru.rutmiit.models.enums.SubmissionStatus;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SubmissionRepository extends JpaRepository<Submission, String> {
 
+    // Журнал оценок для потоковой выгрузки: курсор с ограниченным fetch size, строки-проекции
+    // не попадают в контекст персистентности, поэтому память не растёт с числом строк
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.rutmiit.dto.GradebookRowDto(" +
+           "a.title, a.deadline, st.username, st.fullName, s.status, s.grade, s.submittedAt, s.gradedAt, s.teacherComment) " +
+           "FROM Assignment a JOIN a.assignedStudents st " +
+           "LEFT JOIN Submission s ON s.assignment = a AND s.student = st " +
+           "WHERE a.id = :assignmentId " +
+           "ORDER BY st.fullName, s.submittedAt")
+    Stream<GradebookRowDto> streamGradebookByAssignment(@Param("assignmentId") String assignmentId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.rutmiit.dto.GradebookRowDto(" +
+           "a.title, a.deadline, st.username, st.fullName, s.status, s.grade, s.submittedAt, s.gradedAt, s.teacherComment) " +
+           "FROM Assignment a JOIN a.teacher t JOIN a.assignedStudents st " +
+           "LEFT JOIN Submission s ON s.assignment = a AND s.student = st " +
+           "WHERE t.username = :teacherUsername " +
+           "ORDER BY a.deadline, a.id, st.fullName, s.submittedAt")
+    Stream<GradebookRowDto> streamGradebookByTeacher(@Param("teacherUsername") String teacherUsername);
+
+    @Query("SELECT new ru.rutmiit.dto.StudentGradeSummaryDto(" +
+           "COUNT(s), " +
+           "SUM(CASE WHEN s.grade IS NOT NULL THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN s.status = 'LATE' THEN 1 ELSE 0 END), " +
+           "AVG(s.grade)) " +
+           "FROM Submission s WHERE s.student.username = :username")
+    StudentGradeSummaryDto getGradeSummaryByStudentUsername(@Param("username") String username);
+
+    @Query(value = "SELECT new ru.rutmiit.dto.StudentGradeRowDto(" +
+                   "s.id, a.title, s.submittedAt, s.grade, s.teacherComment, s.status, " +
+                   "CASE WHEN s.attachmentUrl IS NOT NULL THEN true ELSE false END) " +
+                   "FROM Submission s JOIN s.assignment a WHERE s.student.username = :username",
+           countQuery = "SELECT COUNT(s) FROM Submission s WHERE s.student.username = :username")
+    Page<StudentGradeRowDto> findGradeRowsByStudentUsername(@Param("username") String username, Pageable pageable);
+
+    @Query("SELECT new ru.rutmiit.dto.AttachmentAccessDto(s.attachmentUrl, st.username, t.username) " +
+           "FROM Submission s JOIN s.student st JOIN s.assignment a JOIN a.teacher t WHERE s.id = :submissionId")
+    Optional<AttachmentAccessDto> findAttachmentAccess(@Param("submissionId") String submissionId);
+
     List<Submission> findByAssignment(Assignment assignment);
 
     Page<Submission> findByAssignment(Assignment assignment, Pageable pageable);
@@ -1,25 +1,54 @@
 package ru.rutmiit.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.rutmiit.dto.StudentInfoDto;
 import ru.rutmiit.models.entities.User;
 import ru.rutmiit.models.enums.UserRole;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Запросы с HINT_CACHEABLE хранятся в кэше запросов Hibernate (список id, сами сущности - в регионе
+ * {@link User#CACHE_REGION}); любая запись в users через Hibernate делает их недействительными.
+ */
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<User> findByRole(UserRole role);
 
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByRole(UserRole role);
-}
\ No newline at end of file
+
+    // Подсказки при выборе студентов: только id, ФИО и логин, совпадения с начала строки - первыми.
+    // pattern и prefix уже в нижнем регистре с экранированными % и _; триграммные индексы
+    // по lower(full_name) и lower(username) создаются в import.sql
+    @Query("SELECT new ru.rutmiit.dto.StudentInfoDto(u.id, u.fullName, u.username) FROM User u " +
+           "WHERE u.role = ru.rutmiit.models.enums.UserRole.STUDENT " +
+           "AND (LOWER(u.fullName) LIKE :pattern ESCAPE '\\' OR LOWER(u.username) LIKE :pattern ESCAPE '\\') " +
+           "ORDER BY CASE WHEN LOWER(u.fullName) LIKE :prefix ESCAPE '\\' " +
+           "OR LOWER(u.username) LIKE :prefix ESCAPE '\\' THEN 0 ELSE 1 END, u.fullName, u.id")
+    List<StudentInfoDto> searchStudents(@Param("pattern") String pattern, @Param("prefix") String prefix, Limit limit);
+
+    @Query("SELECT new ru.rutmiit.dto.StudentInfoDto(u.id, u.fullName, u.username) FROM User u " +
+           "WHERE u.id IN :ids AND u.role = ru.rutmiit.models.enums.UserRole.STUDENT ORDER BY u.fullName")
+    List<StudentInfoDto> findStudentInfosByIds(@Param("ids") Collection<String> ids);
+}
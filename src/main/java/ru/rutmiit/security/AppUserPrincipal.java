@@ -0,0 +1,29 @@
+package ru.rutmiit.security;
+
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import ru.rutmiit.models.enums.UserRole;
+
+import java.util.List;
+
+/**
+ * Аутентифицированный пользователь приложения: к стандартному User добавлены id и роль,
+ * чтобы их можно было восстановить из cookie без обращения к базе.
+ */
+@Getter
+public class AppUserPrincipal extends User {
+
+    private final String id;
+    private final UserRole role;
+
+    public AppUserPrincipal(String id, String username, String password, UserRole role) {
+        super(username, password, List.of(new SimpleGrantedAuthority(role.getRoleName())));
+        this.id = id;
+        this.role = role;
+    }
+
+    public AppUserPrincipal withPassword(String password) {
+        return new AppUserPrincipal(id, getUsername(), password, role);
+    }
+}
@@ -0,0 +1,180 @@
+package ru.rutmiit.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.function.SingletonSupplier;
+import ru.rutmiit.models.enums.UserRole;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Хранит контекст безопасности в подписанной (и при необходимости зашифрованной) cookie
+ * вместо HTTP-сессии: на сервере не остаётся состояния пользователя, и узлам за балансировщиком
+ * не нужны липкие сессии. Срок действия скользящий: после половины срока cookie перевыпускается
+ * с актуальной ролью (см. {@link #refresh}). Пароль в cookie не попадает.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CookieSecurityContextRepository implements SecurityContextRepository {
+
+    private static final String CLAIMS_ATTRIBUTE = CookieSecurityContextRepository.class.getName() + ".CLAIMS";
+
+    private final SecurityContextCookieCodec codec;
+    private final UserDetailsService userDetailsService;
+    @Getter
+    private final String cookieName;
+    private final Duration ttl;
+    private final SecurityContextHolderStrategy holderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    /**
+     * @deprecated устаревший контракт Spring Security; цепочка фильтров вызывает {@link #loadDeferredContext}
+     */
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        Supplier<SecurityContext> supplier = SingletonSupplier.of(() -> claims(request)
+                .map(this::toContext)
+                .orElseGet(holderStrategy::createEmptyContext));
+        return new DeferredSecurityContext() {
+            @Override
+            public SecurityContext get() {
+                return supplier.get();
+            }
+
+            @Override
+            public boolean isGenerated() {
+                return claims(request).isEmpty();
+            }
+        };
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !(authentication.getPrincipal() instanceof AppUserPrincipal principal)) {
+            if (readCookie(request) != null) {
+                writeCookie(request, response, "", Duration.ZERO);
+            }
+            return;
+        }
+        issue(request, response, principal.getId(), principal.getUsername(), principal.getRole());
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return claims(request).isPresent();
+    }
+
+    /**
+     * Перевыпускает cookie, если прошло больше половины срока. Роль перечитывается
+     * (из кэша пользователей), поэтому её изменение доходит до cookie не позже чем через ttl/2.
+     */
+    public void refresh(HttpServletRequest request, HttpServletResponse response) {
+        Optional<SecurityContextCookieCodec.Claims> current = claims(request);
+        if (current.isEmpty()) {
+            return;
+        }
+        SecurityContextCookieCodec.Claims claims = current.get();
+        if (Instant.now().isBefore(claims.issuedAt().plus(ttl.dividedBy(2)))) {
+            return;
+        }
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(claims.username());
+            if (user instanceof AppUserPrincipal principal && principal.getId().equals(claims.userId())) {
+                issue(request, response, principal.getId(), principal.getUsername(), principal.getRole());
+                return;
+            }
+        } catch (UsernameNotFoundException e) {
+            log.debug("Пользователь {} из cookie больше не существует", claims.username());
+        }
+        request.setAttribute(CLAIMS_ATTRIBUTE, Optional.empty());
+        writeCookie(request, response, "", Duration.ZERO);
+    }
+
+    private void issue(HttpServletRequest request, HttpServletResponse response,
+                       String userId, String username, UserRole role) {
+        Instant now = Instant.now();
+        SecurityContextCookieCodec.Claims claims = new SecurityContextCookieCodec.Claims(
+                userId, username, role, now, now.plus(ttl));
+        request.setAttribute(CLAIMS_ATTRIBUTE, Optional.of(claims));
+        writeCookie(request, response, codec.encode(claims), ttl);
+    }
+
+    // Разобранная cookie кэшируется в атрибуте запроса: HMAC считается один раз за запрос
+    @SuppressWarnings("unchecked")
+    private Optional<SecurityContextCookieCodec.Claims> claims(HttpServletRequest request) {
+        Object cached = request.getAttribute(CLAIMS_ATTRIBUTE);
+        if (cached != null) {
+            return (Optional<SecurityContextCookieCodec.Claims>) cached;
+        }
+        String value = readCookie(request);
+        Optional<SecurityContextCookieCodec.Claims> claims = value == null || value.isEmpty()
+                ? Optional.empty()
+                : codec.decode(value).filter(c -> !c.isExpired(Instant.now()));
+        if (value != null && !value.isEmpty() && claims.isEmpty()) {
+            log.debug("Cookie контекста безопасности отклонена: подпись не сошлась или срок истёк");
+        }
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        return claims;
+    }
+
+    private SecurityContext toContext(SecurityContextCookieCodec.Claims claims) {
+        AppUserPrincipal principal = new AppUserPrincipal(claims.userId(), claims.username(), "", claims.role());
+        principal.eraseCredentials();
+        SecurityContext context = holderStrategy.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities()));
+        return context;
+    }
+
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .path(request.getContextPath().isEmpty() ? "/" : request.getContextPath())
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
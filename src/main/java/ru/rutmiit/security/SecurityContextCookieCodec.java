@@ -0,0 +1,157 @@
+package ru.rutmiit.security;
+
+import ru.rutmiit.models.enums.UserRole;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Компактная сериализация principal в значение cookie.
+ * Полезная нагрузка - двоичная запись (версия, id, логин, роль, время выдачи и истечения).
+ * Без шифрования: base64url(нагрузка).base64url(HMAC-SHA256); с шифрованием: base64url(iv + AES-GCM),
+ * где тег GCM заменяет подпись. Ключи подписи и шифрования выводятся из общего секрета.
+ */
+public class SecurityContextCookieCodec {
+
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+    private final SecretKeySpec encryptionKey;
+    private final boolean encrypt;
+    private final SecureRandom random = new SecureRandom();
+
+    public SecurityContextCookieCodec(String secret, boolean encrypt) {
+        if (secret == null || secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("Секрет cookie контекста безопасности должен быть не короче "
+                    + MIN_SECRET_LENGTH + " символов");
+        }
+        byte[] master = secret.getBytes(StandardCharsets.UTF_8);
+        this.signingKey = new SecretKeySpec(derive(master, "security-context:sign"), "HmacSHA256");
+        this.encryptionKey = new SecretKeySpec(derive(master, "security-context:encrypt"), "AES");
+        this.encrypt = encrypt;
+    }
+
+    public record Claims(String userId, String username, UserRole role, Instant issuedAt, Instant expiresAt) {
+
+        public boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    public String encode(Claims claims) {
+        byte[] payload = serialize(claims);
+        try {
+            if (encrypt) {
+                byte[] iv = new byte[IV_LENGTH];
+                random.nextBytes(iv);
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+                byte[] sealed = cipher.doFinal(payload);
+                byte[] token = Arrays.copyOf(iv, IV_LENGTH + sealed.length);
+                System.arraycopy(sealed, 0, token, IV_LENGTH, sealed.length);
+                return ENCODER.encodeToString(token);
+            }
+            return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось сформировать cookie контекста безопасности", e);
+        }
+    }
+
+    /**
+     * @return пусто, если значение повреждено, подделано или в неизвестном формате;
+     * срок действия проверяет вызывающий
+     */
+    public Optional<Claims> decode(String value) {
+        try {
+            byte[] payload = encrypt ? open(value) : verify(value);
+            return payload != null ? Optional.of(deserialize(payload)) : Optional.empty();
+        } catch (IllegalArgumentException | IOException | GeneralSecurityException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] verify(String value) throws GeneralSecurityException {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        byte[] payload = DECODER.decode(value.substring(0, dot));
+        byte[] signature = DECODER.decode(value.substring(dot + 1));
+        return MessageDigest.isEqual(sign(payload), signature) ? payload : null;
+    }
+
+    private byte[] open(String value) throws GeneralSecurityException {
+        byte[] token = DECODER.decode(value);
+        if (token.length <= IV_LENGTH) {
+            return null;
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, token, 0, IV_LENGTH));
+        return cipher.doFinal(token, IV_LENGTH, token.length - IV_LENGTH);
+    }
+
+    private byte[] sign(byte[] payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(signingKey);
+        return mac.doFinal(payload);
+    }
+
+    private static byte[] serialize(Claims claims) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(claims.userId());
+            out.writeUTF(claims.username());
+            out.writeUTF(claims.role().name());
+            out.writeLong(claims.issuedAt().getEpochSecond());
+            out.writeLong(claims.expiresAt().getEpochSecond());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Claims deserialize(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != VERSION) {
+            throw new IOException("Неизвестная версия cookie");
+        }
+        String userId = in.readUTF();
+        String username = in.readUTF();
+        UserRole role = UserRole.valueOf(in.readUTF());
+        Instant issuedAt = Instant.ofEpochSecond(in.readLong());
+        Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+        return new Claims(userId, username, role, issuedAt, expiresAt);
+    }
+
+    private static byte[] derive(byte[] master, String label) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(master, "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.rutmiit.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Продлевает cookie контекста безопасности до начала обработки запроса,
+ * пока заголовки ответа ещё можно менять.
+ */
+@RequiredArgsConstructor
+public class SecurityContextCookieRefreshFilter extends OncePerRequestFilter {
+
+    private final CookieSecurityContextRepository repository;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        repository.refresh(request, response);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.rutmiit.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.rutmiit.models.exceptions.PasswordHashingRejectedException;
+
+/**
+ * Вход по паролю, при котором перехеширование устаревшего хеша не срывает уже успешную проверку:
+ * если пул хеширования перегружен, пользователь входит со старым хешем, а обновление
+ * откладывается до следующего входа.
+ */
+@Slf4j
+public class UpgradeDeferringAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public UpgradeDeferringAuthenticationProvider(UserDetailsService userDetailsService,
+                                                  UserDetailsPasswordService passwordService,
+                                                  PasswordEncoder passwordEncoder) {
+        setUserDetailsService(userDetailsService);
+        setUserDetailsPasswordService(passwordService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("Обновление хеша пароля пользователя {} отложено: {}", user.getUsername(), e.getMessage());
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
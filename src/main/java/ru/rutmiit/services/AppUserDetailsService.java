@@ -2,41 +2,57 @@ package ru.rutmiit.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.rutmiit.repositories.UserRepository;
+import ru.rutmiit.security.AppUserPrincipal;
 
-import java.util.List;
-
+/**
+ * Загрузка учётных данных для входа по форме и remember-me.
+ * Найденные пользователи кэшируются, поэтому повторные входы не обращаются к базе.
+ * Хеш, записанный устаревшим способом, после успешного входа заменяется новым (updatePassword).
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class AppUserDetailsService implements UserDetailsService {
+public class AppUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Попытка загрузки пользователя: {}", username);
-
-        return userRepository.findByUsername(username)
-                .map(u -> {
-                    log.info("Пользователь найден в БД: {}", u.getUsername());
-                    log.info("Хеш пароля в БД: {}", u.getPassword());
-                    log.info("Роль пользователя: {}", u.getRole());
+        UserDetails cached = userCache.getUserFromCache(username);
+        if (cached != null) {
+            log.debug("Пользователь {} загружен из кэша", username);
+            return cached;
+        }
 
-                    return new User(
-                            u.getUsername(),
-                            u.getPassword(),
-                            List.of(new SimpleGrantedAuthority("ROLE_" + u.getRole().name()))
-                    );
-                }).orElseThrow(() -> {
-                    log.error("Пользователь не найден: {}", username);
+        UserDetails user = userRepository.findByUsername(username)
+                .map(u -> new AppUserPrincipal(u.getId(), u.getUsername(), u.getPassword(), u.getRole()))
+                .orElseThrow(() -> {
+                    log.debug("Пользователь не найден: {}", username);
                     return new UsernameNotFoundException(username + " was not found!");
                 });
+        log.debug("Пользователь {} загружен из БД, роли: {}", username, user.getAuthorities());
+        userCache.putUserInCache(user);
+        return user;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername())
+                .ifPresent(u -> u.setPassword(newPassword));
+        log.info("Хеш пароля пользователя {} обновлён до текущих параметров", user.getUsername());
+        return user instanceof AppUserPrincipal principal
+                ? principal.withPassword(newPassword)
+                : User.withUserDetails(user).password(newPassword).build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package ru.rutmiit.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rutmiit.cache.SingleFlightCache;
+import ru.rutmiit.dto.BulkExtendDeadlineDto;
+import ru.rutmiit.dto.BulkOperationProgressDto;
+import ru.rutmiit.dto.BulkOperationResultDto;
+import ru.rutmiit.dto.BulkStudentsDto;
+import ru.rutmiit.events.AssignmentEvent;
+import ru.rutmiit.models.enums.AssignmentStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Массовые операции над заданиями, работающие только с идентификаторами:
+ * строки assignment_students вставляются и удаляются JDBC-пачками,
+ * продление дедлайнов выполняется одним UPDATE. Каждая пачка - отдельная короткая транзакция,
+ * вставка идемпотентна, поэтому прерванную операцию можно просто повторить.
+ */
+@Slf4j
+@Service
+public class AssignmentBulkService {
+
+    // Вставляются только существующие студенты и только отсутствующие связи
+    private static final String INSERT_LINK_SQL =
+            "INSERT INTO assignment_students (assignment_id, student_id) " +
+            "SELECT ?, u.id FROM users u WHERE u.id = ? AND u.role = 'STUDENT' " +
+            "AND NOT EXISTS (SELECT 1 FROM assignment_students x WHERE x.assignment_id = ? AND x.student_id = u.id)";
+
+    private static final String DELETE_LINK_SQL =
+            "DELETE FROM assignment_students WHERE assignment_id = ? AND student_id = ?";
+
+    private static final String OWNED_ASSIGNMENTS_SQL =
+            "SELECT a.id FROM assignments a JOIN users t ON t.id = a.teacher_id " +
+            "WHERE t.username = :teacher AND a.id IN (:ids)";
+
+    private static final String EXTEND_DEADLINE_SQL =
+            "UPDATE assignments SET deadline = deadline + (:minutes * INTERVAL '1 minute'), updated_at = :now " +
+            "WHERE id IN (:ids)";
+
+    private static final String DEADLINES_SQL =
+            "SELECT id, deadline, status FROM assignments WHERE id IN (:ids)";
+
+    private static final String REOPEN_SQL =
+            "UPDATE assignments SET status = 'ACTIVE' WHERE status = 'EXPIRED' AND id IN (:ids)";
+
+    private static final String TOUCH_ASSIGNMENTS_SQL =
+            "UPDATE assignments SET updated_at = :now WHERE id IN (:ids)";
+
+    // Ограничение размера списка в IN (...)
+    private static final int MAX_IN_LIST = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkOperationTracker operationTracker;
+    private final SingleFlightCache singleFlightCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public AssignmentBulkService(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 BulkOperationTracker operationTracker,
+                                 SingleFlightCache singleFlightCache,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.bulk.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.operationTracker = operationTracker;
+        this.singleFlightCache = singleFlightCache;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Связывает задание со студентами пачками. Вызывается внутри транзакции создания задания,
+     * поэтому строка задания к этому моменту должна быть уже записана (flush).
+     *
+     * @return количество добавленных связей
+     */
+    public long linkStudents(String assignmentId, Collection<String> studentIds) {
+        long inserted = 0;
+        List<Object[]> batch = new ArrayList<>(Math.min(chunkSize, studentIds.size()));
+        for (String studentId : new LinkedHashSet<>(studentIds)) {
+            batch.add(new Object[]{assignmentId, studentId, assignmentId});
+            if (batch.size() == chunkSize) {
+                inserted += executeBatch(INSERT_LINK_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += executeBatch(INSERT_LINK_SQL, batch);
+        }
+        return inserted;
+    }
+
+    public BulkOperationResultDto assignStudents(BulkStudentsDto dto, String teacherUsername, String operationId) {
+        return changeLinks("ASSIGN", true, dto, teacherUsername, operationId);
+    }
+
+    public BulkOperationResultDto unassignStudents(BulkStudentsDto dto, String teacherUsername, String operationId) {
+        return changeLinks("UNASSIGN", false, dto, teacherUsername, operationId);
+    }
+
+    /**
+     * Сдвигает дедлайны заданий преподавателя. Задание, уже закрытое по дедлайну (EXPIRED),
+     * открывается снова, если новый срок ещё не наступил; завершённые и отменённые не меняют статус.
+     */
+    public BulkOperationResultDto extendDeadlines(BulkExtendDeadlineDto dto, String teacherUsername, String operationId) {
+        Set<String> requested = new LinkedHashSet<>(dto.getAssignmentIds());
+        List<String> owned = findOwnedAssignmentIds(requested, teacherUsername);
+        BulkOperationProgressDto progress = operationTracker.start(operationId, "EXTEND_DEADLINE", teacherUsername, owned.size());
+
+        long updated = 0;
+        try {
+            for (List<String> ids : partition(owned, MAX_IN_LIST)) {
+                LocalDateTime now = LocalDateTime.now();
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                        .addValue("minutes", dto.getMinutes())
+                        .addValue("now", now)
+                        .addValue("ids", ids);
+                Integer count = transactionTemplate.execute(status -> {
+                    int changed = namedJdbcTemplate.update(EXTEND_DEADLINE_SQL, params);
+                    publishDeadlines(ids, now);
+                    return changed;
+                });
+                updated += count != null ? count : 0;
+                progress.advance(ids.size());
+            }
+            progress.finish(BulkOperationProgressDto.State.COMPLETED);
+        } catch (RuntimeException e) {
+            progress.finish(BulkOperationProgressDto.State.FAILED);
+            throw e;
+        } finally {
+            evictDetails(owned);
+        }
+
+        log.info("Продлены дедлайны {} заданий на {} мин. (операция {})", updated, dto.getMinutes(), operationId);
+        return new BulkOperationResultDto(operationId, requested.size(), updated, rejected(requested, owned));
+    }
+
+    private BulkOperationResultDto changeLinks(String type, boolean insert, BulkStudentsDto dto,
+                                               String teacherUsername, String operationId) {
+        String sql = insert ? INSERT_LINK_SQL : DELETE_LINK_SQL;
+        Set<String> requested = new LinkedHashSet<>(dto.getAssignmentIds());
+        Set<String> studentIds = new LinkedHashSet<>(dto.getStudentIds());
+        List<String> owned = findOwnedAssignmentIds(requested, teacherUsername);
+
+        long total = (long) owned.size() * studentIds.size();
+        BulkOperationProgressDto progress = operationTracker.start(operationId, type, teacherUsername, total);
+        log.info("Массовая операция {} ({}): {} заданий x {} студентов", type, operationId, owned.size(), studentIds.size());
+
+        long affected = 0;
+        try {
+            List<Object[]> batch = new ArrayList<>((int) Math.min(chunkSize, Math.max(total, 1)));
+            for (String assignmentId : owned) {
+                for (String studentId : studentIds) {
+                    batch.add(insert
+                            ? new Object[]{assignmentId, studentId, assignmentId}
+                            : new Object[]{assignmentId, studentId});
+                    if (batch.size() == chunkSize) {
+                        affected += executeChunk(sql, batch, progress);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                affected += executeChunk(sql, batch, progress);
+            }
+            touchAssignments(owned);
+            progress.finish(BulkOperationProgressDto.State.COMPLETED);
+        } catch (RuntimeException e) {
+            progress.finish(BulkOperationProgressDto.State.FAILED);
+            log.error("Массовая операция {} ({}) прервана на {} из {}", type, operationId,
+                    progress.getProcessed().get(), total, e);
+            throw e;
+        } finally {
+            evictDetails(owned);
+        }
+
+        log.info("Массовая операция {} ({}) завершена: изменено {} связей", type, operationId, affected);
+        return new BulkOperationResultDto(operationId, total, affected, rejected(requested, owned));
+    }
+
+    private long executeChunk(String sql, List<Object[]> batch, BulkOperationProgressDto progress) {
+        Long count = transactionTemplate.execute(status -> executeBatch(sql, batch));
+        progress.advance(batch.size());
+        if (log.isDebugEnabled()) {
+            log.debug("Операция {}: обработано {} из {}", progress.getOperationId(),
+                    progress.getProcessed().get(), progress.getTotal());
+        }
+        return count != null ? count : 0;
+    }
+
+    private long executeBatch(String sql, List<Object[]> batch) {
+        long affected = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, batch)) {
+            affected += Math.max(count, 0);
+        }
+        return affected;
+    }
+
+    // Новый срок вычисляет база, поэтому для событий он перечитывается в той же транзакции.
+    // Строки уже заблокированы продлением, и закрытие по дедлайну (только ACTIVE) их не перехватит
+    private void publishDeadlines(List<String> assignmentIds, LocalDateTime now) {
+        List<String> reopened = new ArrayList<>();
+        namedJdbcTemplate.query(DEADLINES_SQL, new MapSqlParameterSource("ids", assignmentIds),
+                (RowCallbackHandler) rs -> {
+                    String id = rs.getString("id");
+                    LocalDateTime deadline = rs.getTimestamp("deadline").toLocalDateTime();
+                    eventPublisher.publishEvent(AssignmentEvent.deadlineChanged(id, deadline));
+                    if (AssignmentStatus.EXPIRED.name().equals(rs.getString("status")) && deadline.isAfter(now)) {
+                        reopened.add(id);
+                    }
+                });
+        if (reopened.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(REOPEN_SQL, new MapSqlParameterSource("ids", reopened));
+        reopened.forEach(id -> eventPublisher.publishEvent(
+                AssignmentEvent.statusChanged(id, AssignmentStatus.EXPIRED, AssignmentStatus.ACTIVE)));
+        log.info("Открыто снова заданий с продлённым дедлайном: {}", reopened.size());
+    }
+
+    private List<String> findOwnedAssignmentIds(Collection<String> assignmentIds, String teacherUsername) {
+        List<String> owned = new ArrayList<>();
+        for (List<String> ids : partition(new ArrayList<>(assignmentIds), MAX_IN_LIST)) {
+            owned.addAll(namedJdbcTemplate.queryForList(OWNED_ASSIGNMENTS_SQL,
+                    new MapSqlParameterSource().addValue("teacher", teacherUsername).addValue("ids", ids),
+                    String.class));
+        }
+        return owned;
+    }
+
+    // Состав студентов меняется в join-таблице, поэтому версия задания обновляется явно
+    private void touchAssignments(List<String> assignmentIds) {
+        for (List<String> ids : partition(assignmentIds, MAX_IN_LIST)) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("now", LocalDateTime.now())
+                    .addValue("ids", ids);
+            transactionTemplate.executeWithoutResult(status -> namedJdbcTemplate.update(TOUCH_ASSIGNMENTS_SQL, params));
+        }
+    }
+
+    private void evictDetails(Collection<String> assignmentIds) {
+        assignmentIds.forEach(id -> singleFlightCache.evict(AssignmentService.DETAILS_CACHE, id));
+        // Число студентов видно и в карточках списка
+        singleFlightCache.clear(AssignmentService.PAGES_CACHE);
+    }
+
+    private static List<String> rejected(Collection<String> requested, Collection<String> owned) {
+        Set<String> ownedSet = Set.copyOf(owned);
+        return requested.stream().filter(id -> !ownedSet.contains(id)).toList();
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> parts = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            parts.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return parts;
+    }
+}
@@ -2,18 +2,37 @@ package ru.rutmiit.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.rutmiit.cache.SingleFlightCache;
 import ru.rutmiit.dto.*;
+import ru.rutmiit.events.AssignmentEvent;
+import ru.rutmiit.events.SubmissionEvent;
+import ru.rutmiit.mappers.AssignmentMapper;
 import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
 import ru.rutmiit.models.entities.Assignment;
 import ru.rutmiit.models.entities.User;
 import ru.rutmiit.repositories.AssignmentRepository;
+import ru.rutmiit.utils.pagination.AssignmentSortKey;
+import ru.rutmiit.utils.pagination.KeysetCursor;
+import ru.rutmiit.utils.pagination.KeysetSlice;
+import ru.rutmiit.views.fragments.FragmentCache;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,9 +41,20 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)  // Добавьте эту аннотацию
 public class AssignmentService {
 
+    // OFFSET-страницы разрешены только в начале списка, дальше - продолжение по курсору
+    private static final int MAX_OFFSET_PAGE = 4;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    public static final String DETAILS_CACHE = "assignmentDetails";
+    public static final String PAGES_CACHE = "assignmentPages";
+
     private final AssignmentRepository assignmentRepository;
     private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final AssignmentBulkService assignmentBulkService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssignmentMapper assignmentMapper;
+    private final SingleFlightCache singleFlightCache;
+    private final FragmentCache fragmentCache;
 
     public List<ShowAssignmentDto> getAllAssignments() {
         return assignmentRepository.findAll().stream()
@@ -32,24 +62,68 @@ public class AssignmentService {
                 .collect(Collectors.toList());
     }
 
-    public Page<ShowAssignmentDto> getAllAssignmentsPaginated(Pageable pageable) {
-        return assignmentRepository.findAll(pageable)
-                .map(this::convertToShowDto);
+    /**
+     * Страница списка заданий: по курсору (keyset), если он передан, иначе по номеру страницы.
+     * Первые страницы по номеру общие для всех и читаются через {@link SingleFlightCache};
+     * продолжения по курсору не кэшируются. Своя транзакция не нужна: загрузчик открывает read-only.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public KeysetSlice<ShowAssignmentDto> getAllAssignmentsPaginated(AssignmentSortKey sortKey, int page,
+                                                                     String cursor, int size) {
+        if (cursor != null && !cursor.isBlank()) {
+            return findCards(sortKey, page, cursor, size, null);
+        }
+        int offsetPage = clampOffsetPage(page);
+        int limit = clampPageSize(size);
+        return singleFlightCache.get(PAGES_CACHE, sortKey.name() + ":" + offsetPage + ":" + limit,
+                () -> findCards(sortKey, offsetPage, null, limit, null));
     }
 
-    public List<ShowAssignmentDto> searchAssignments(String searchTerm) {
-        return assignmentRepository.findByTitleContainingIgnoreCase(searchTerm).stream()
-                .map(this::convertToShowDto)
+    /**
+     * Ранжированный полнотекстовый поиск: сначала страница id по релевантности,
+     * затем карточки для этих id одним запросом в том же порядке.
+     */
+    public Page<ShowAssignmentDto> searchAssignments(String searchTerm, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(0, page), clampPageSize(size));
+        Page<String> ids = assignmentRepository.searchIds(searchTerm.trim(), pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+
+        Map<String, ShowAssignmentDto> cards = assignmentRepository.findCardsByIds(ids.getContent()).stream()
+                .collect(Collectors.toMap(ShowAssignmentDto::getId, Function.identity()));
+        List<ShowAssignmentDto> ranked = ids.getContent().stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return new PageImpl<>(ranked, pageable, ids.getTotalElements());
     }
 
-    @Transactional  // Для методов, изменяющих данные
+    // Перед дедлайном карточку открывают все сразу: загрузка одна на ключ, остальные ждут её результат
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AssignmentDetailsDto getAssignmentDetails(String id) {
-        Assignment assignment = assignmentRepository.findById(id)
-                .orElseThrow(() -> new AssignmentNotFoundException(
-                        "Задание с ID '" + id + "' не найдено"));
+        return singleFlightCache.get(DETAILS_CACHE, id, () -> {
+            Assignment assignment = assignmentRepository.findById(id)
+                    .orElseThrow(() -> new AssignmentNotFoundException(
+                            "Задание с ID '" + id + "' не найдено"));
 
-        return convertToDetailsDto(assignment);
+            return convertToDetailsDto(assignment);
+        });
+    }
+
+    /**
+     * Время последнего изменения задания для условного GET страницы деталей; пусто, если задания нет.
+     * Назначение и снятие студентов тоже обновляют updated_at задания.
+     */
+    public Optional<LocalDateTime> getDetailsVersion(String id) {
+        return assignmentRepository.findVersionById(id);
+    }
+
+    /**
+     * Версия списка заданий студента: последнее изменение среди его заданий и их число.
+     */
+    public PageVersionDto getStudentAssignmentsVersion(String studentUsername) {
+        return assignmentRepository.findVersionByStudentUsername(studentUsername);
     }
 
     @Transactional
@@ -57,16 +131,16 @@ public class AssignmentService {
         User teacher = userService.findByUsername(teacherUsername)
                 .orElseThrow(() -> new IllegalArgumentException("Преподаватель не найден"));
 
-        Assignment assignment = modelMapper.map(assignmentDto, Assignment.class);
+        Assignment assignment = assignmentMapper.toEntity(assignmentDto);
         assignment.setTeacher(teacher);
-
-        // Назначаем студентов
-        List<User> students = userService.findAllByIds(assignmentDto.getStudentIds());
-        assignment.setAssignedStudents(students);
-
-        assignmentRepository.save(assignment);
-        log.info("Создано новое задание: '{}' преподавателем: {}",
-                assignment.getTitle(), teacher.getFullName());
+        assignmentRepository.saveAndFlush(assignment);
+
+        // Назначаем студентов по id пачками, без загрузки сущностей
+        long linked = assignmentBulkService.linkStudents(assignment.getId(), assignmentDto.getStudentIds());
+        eventPublisher.publishEvent(AssignmentEvent.created(
+                assignment.getId(), assignment.getStatus(), assignment.getDeadline()));
+        log.info("Создано новое задание: '{}' преподавателем: {}, назначено студентов: {}",
+                assignment.getTitle(), teacher.getFullName(), linked);
     }
 
     @Transactional
@@ -75,41 +149,87 @@ public class AssignmentService {
                 .orElseThrow(() -> new AssignmentNotFoundException(
                         "Задание с ID '" + id + "' не найдено"));
 
+        // Сдачи удаляются каскадно вместе с заданием
+        assignment.getSubmissions().forEach(submission -> eventPublisher.publishEvent(SubmissionEvent.deleted(
+                submission.getId(), id, submission.getStudent().getUsername(),
+                submission.getStatus(), submission.getGrade())));
         assignmentRepository.delete(assignment);
+        eventPublisher.publishEvent(AssignmentEvent.deleted(id, assignment.getStatus()));
         log.info("Удалено задание: '{}'", assignment.getTitle());
     }
 
-    public Page<ShowAssignmentDto> getAssignmentsForStudent(String studentUsername, Pageable pageable) {
-        User student = userService.findByUsername(studentUsername)
-                .orElseThrow(() -> new IllegalArgumentException("Студент не найден"));
+    // Любое изменение задания может сдвинуть его в списке; страниц немного, сбрасываем все.
+    // Карточка задания сбрасывается здесь же, после коммита, а не до него (@CacheEvict).
+    // Фрагменты задания с прежней версией в ключе больше не понадобятся - освобождаем память сразу.
+    // Слушатель только сбрасывает кэши в памяти и Redis, поэтому работает вне транзакции
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAssignmentEvent(AssignmentEvent event) {
+        singleFlightCache.evict(DETAILS_CACHE, event.assignmentId());
+        singleFlightCache.clear(PAGES_CACHE);
+        log.debug("Сброшены страницы списка заданий после события {} задания {}", event.type(), event.assignmentId());
+        fragmentCache.evictPrefix(fragmentPrefix(event.assignmentId()));
+    }
 
-        return assignmentRepository.findByAssignedStudentsContaining(student, pageable)
-                .map(this::convertToShowDto);
+    /**
+     * Префикс ключей кэша фрагментов шаблонов, относящихся к заданию (карточки, список студентов).
+     */
+    public static String fragmentPrefix(String assignmentId) {
+        return "assignment:" + assignmentId + ":";
+    }
+
+    public KeysetSlice<ShowAssignmentDto> getAssignmentsForStudent(String studentUsername, AssignmentSortKey sortKey,
+                                                                   int page, String cursor, int size) {
+        return findCards(sortKey, page, cursor, size, studentUsername);
+    }
+
+    private KeysetSlice<ShowAssignmentDto> findCards(AssignmentSortKey sortKey, int page, String cursor,
+                                                     int size, String studentUsername) {
+        int limit = clampPageSize(size);
+
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            // Берём на одну строку больше, чтобы узнать о следующей странице без COUNT(*)
+            List<ShowAssignmentDto> rows = assignmentRepository.findCardsAfter(position, studentUsername, limit + 1);
+            boolean hasNext = rows.size() > limit;
+            List<ShowAssignmentDto> content = hasNext ? rows.subList(0, limit) : rows;
+            return toSlice(content, hasNext, position.sortKey());
+        }
+
+        int offsetPage = clampOffsetPage(page);
+        Pageable pageable = PageRequest.of(offsetPage, limit,
+                Sort.by(sortKey.getProperty()).ascending().and(Sort.by("id").ascending()));
+        Slice<ShowAssignmentDto> slice = studentUsername != null
+                ? assignmentRepository.findCardsByStudentUsername(studentUsername, pageable)
+                : assignmentRepository.findAllCards(pageable);
+        return toSlice(slice.getContent(), slice.hasNext(), sortKey);
+    }
+
+    // Номер OFFSET-страницы и размер страницы в тех пределах, в которых их применяет сервис;
+    // контроллер показывает те же значения, а не запрошенные
+    public static int clampOffsetPage(int page) {
+        return Math.max(0, Math.min(page, MAX_OFFSET_PAGE));
+    }
+
+    public static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private KeysetSlice<ShowAssignmentDto> toSlice(List<ShowAssignmentDto> content, boolean hasNext,
+                                                   AssignmentSortKey sortKey) {
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            ShowAssignmentDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortKey, sortKey.valueOf(last), last.getId()).encode();
+        }
+        return new KeysetSlice<>(content, hasNext, nextCursor);
     }
 
     private ShowAssignmentDto convertToShowDto(Assignment assignment) {
-        ShowAssignmentDto dto = modelMapper.map(assignment, ShowAssignmentDto.class);
-        dto.setTeacherName(assignment.getTeacher().getFullName());
-        dto.setStudentCount(assignment.getAssignedStudents().size());  // Тут нужна открытая сессия!
-        return dto;
+        return assignmentMapper.toShowDto(assignment);  // Тут нужна открытая сессия!
     }
 
     private AssignmentDetailsDto convertToDetailsDto(Assignment assignment) {
-        AssignmentDetailsDto dto = modelMapper.map(assignment, AssignmentDetailsDto.class);
-        dto.setTeacherName(assignment.getTeacher().getFullName());
-
-        // Конвертируем студентов
-        List<StudentInfoDto> studentDtos = assignment.getAssignedStudents().stream()
-                .map(student -> {
-                    StudentInfoDto studentDto = new StudentInfoDto();
-                    studentDto.setId(student.getId());
-                    studentDto.setFullName(student.getFullName());
-                    studentDto.setUsername(student.getUsername());
-                    return studentDto;
-                })
-                .collect(Collectors.toList());
-
-        dto.setAssignedStudents(studentDtos);
-        return dto;
+        return assignmentMapper.toDetailsDto(assignment);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ru.rutmiit.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rutmiit.dto.AttachmentAccessDto;
+import ru.rutmiit.models.exceptions.AttachmentNotFoundException;
+import ru.rutmiit.repositories.SubmissionRepository;
+
+import java.nio.file.Path;
+
+/**
+ * Проверка доступа к вложению сдачи: скачать его может автор сдачи или преподаватель задания.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AttachmentDownloadService {
+
+    private final SubmissionRepository submissionRepository;
+    private final FileStorageService fileStorageService;
+
+    public record Attachment(Path file, String downloadName) {
+    }
+
+    public Attachment findAttachment(String submissionId, String username) {
+        AttachmentAccessDto access = submissionRepository.findAttachmentAccess(submissionId)
+                .orElseThrow(() -> new AttachmentNotFoundException("Сдача не найдена"));
+
+        if (!username.equals(access.getStudentUsername()) && !username.equals(access.getTeacherUsername())) {
+            log.warn("Пользователь {} пытался скачать вложение сдачи {}", username, submissionId);
+            throw new AccessDeniedException("Нет доступа к вложению этой сдачи");
+        }
+        if (access.getAttachmentUrl() == null) {
+            throw new AttachmentNotFoundException("У сдачи нет вложения");
+        }
+
+        Path file = fileStorageService.load(access.getAttachmentUrl())
+                .orElseThrow(() -> new AttachmentNotFoundException("Файл вложения не найден"));
+        return new Attachment(file, FileStorageService.originalFileName(access.getAttachmentUrl()));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.rutmiit.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import ru.rutmiit.dto.BulkOperationProgressDto;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Реестр выполняющихся и недавно завершённых массовых операций для опроса хода выполнения.
+ */
+@Component
+public class BulkOperationTracker {
+
+    private final Cache<String, BulkOperationProgressDto> operations = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public BulkOperationProgressDto start(String operationId, String type, String owner, long total) {
+        BulkOperationProgressDto progress = new BulkOperationProgressDto(operationId, type, owner, total);
+        operations.put(operationId, progress);
+        return progress;
+    }
+
+    public Optional<BulkOperationProgressDto> find(String operationId) {
+        return Optional.ofNullable(operations.getIfPresent(operationId));
+    }
+}
@@ -0,0 +1,314 @@
+package ru.rutmiit.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import ru.rutmiit.dto.UploadInitDto;
+import ru.rutmiit.dto.UploadStatusDto;
+import ru.rutmiit.models.exceptions.ChunkChecksumMismatchException;
+import ru.rutmiit.models.exceptions.UploadNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Возобновляемая загрузка вложений по частям.
+ * Каждая часть пишется из тела запроса прямо в файл по своему смещению (FileChannel.transferFrom),
+ * без буферизации всего файла в памяти или во временном multipart-файле.
+ * При завершении контрольная сумма считается потоково, а файл переносится на постоянное место.
+ * Части пишутся под общей блокировкой чтения, завершение - под блокировкой записи:
+ * после начала подсчёта суммы файл уже никто не меняет.
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private final FileStorageService fileStorageService;
+    private final int chunkSize;
+    private final long maxFileSize;
+    private final Cache<String, Upload> uploads;
+
+    public ChunkedUploadService(FileStorageService fileStorageService,
+                                @Value("${app.upload.chunk-size:1MB}") DataSize chunkSize,
+                                @Value("${app.upload.max-file-size:200MB}") DataSize maxFileSize,
+                                @Value("${app.upload.session-ttl:2h}") Duration sessionTtl) {
+        this.fileStorageService = fileStorageService;
+        this.chunkSize = Math.toIntExact(chunkSize.toBytes());
+        this.maxFileSize = maxFileSize.toBytes();
+        // Брошенные загрузки удаляются вместе с файлом по истечении срока
+        this.uploads = Caffeine.newBuilder()
+                .expireAfterAccess(sessionTtl)
+                .maximumSize(10_000)
+                .<String, Upload>removalListener((id, upload, cause) -> {
+                    if (upload != null && cause != RemovalCause.EXPLICIT) {
+                        log.info("Загрузка {} удалена ({}), файл {} стёрт", id, cause, upload.path.getFileName());
+                        fileStorageService.deleteQuietly(upload.path);
+                    }
+                })
+                .build();
+    }
+
+    public UploadStatusDto start(UploadInitDto dto, String owner) {
+        if (dto.getSize() > maxFileSize) {
+            throw new IllegalArgumentException("Файл больше допустимого размера " + DataSize.ofBytes(maxFileSize).toMegabytes() + " МБ");
+        }
+        String uploadId = UUID.randomUUID().toString();
+        Path part = fileStorageService.createPartFile(uploadId);
+        Upload upload = new Upload(uploadId, owner, dto.getFileName(), dto.getSize(), dto.getSha256(), part, chunkSize);
+        uploads.put(uploadId, upload);
+
+        log.debug("Начата загрузка {} файла '{}' ({} байт, частей: {}) пользователем {}",
+                uploadId, dto.getFileName(), dto.getSize(), upload.totalChunks, owner);
+        return upload.toStatus();
+    }
+
+    public UploadStatusDto status(String uploadId, String owner) {
+        return find(uploadId, owner).toStatus();
+    }
+
+    /**
+     * Записывает одну часть. Смещение должно совпадать с границей части, длина тела -
+     * с размером части (последняя может быть короче). Повторная отправка той же части безопасна:
+     * на время перезаписи часть снимается с учёта и засчитывается снова только после проверки.
+     * Если передан chunkSha256, сумма считается по ходу записи, и часть с несовпавшей суммой
+     * не засчитывается: клиенту не нужно хешировать весь файл целиком.
+     */
+    public UploadStatusDto writeChunk(String uploadId, String owner, long offset, String chunkSha256,
+                                      InputStream body) throws IOException {
+        Upload upload = find(uploadId, owner);
+        if (offset < 0 || offset >= upload.size || offset % chunkSize != 0) {
+            throw new IllegalArgumentException("Некорректное смещение части: " + offset);
+        }
+        int index = (int) (offset / chunkSize);
+
+        upload.lock.readLock().lock();
+        try {
+            if (upload.completed) {
+                throw new IllegalStateException("Загрузка уже завершена");
+            }
+            if (!upload.beginChunk(index)) {
+                throw new IllegalStateException("Часть " + index + " уже записывается");
+            }
+            try {
+                transferChunk(upload, index, offset, chunkSha256, body);
+                upload.markReceived(index);
+            } finally {
+                upload.endChunk(index);
+            }
+        } finally {
+            upload.lock.readLock().unlock();
+        }
+        return upload.toStatus();
+    }
+
+    private void transferChunk(Upload upload, int index, long offset, String chunkSha256,
+                               InputStream body) throws IOException {
+        long expected = Math.min(chunkSize, upload.size - offset);
+
+        MessageDigest digest = chunkSha256 != null ? newSha256() : null;
+        InputStream input = digest != null ? new DigestInputStream(body, digest) : body;
+
+        // Части разных смещений пишутся параллельно в непересекающиеся области файла
+        try (FileChannel channel = FileChannel.open(upload.path, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(input)) {
+            long written = 0;
+            while (written < expected) {
+                long transferred = channel.transferFrom(source, offset + written, expected - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != expected || body.read() != -1) {
+                throw new IllegalArgumentException("Размер части " + index + " не совпадает с ожидаемым (" + expected + " байт)");
+            }
+        }
+        if (digest != null && !chunkSha256.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()))) {
+            log.warn("Контрольная сумма части {} загрузки {} не совпала", index, upload.uploadId);
+            throw new ChunkChecksumMismatchException("Часть " + index + " повреждена при передаче, отправьте её повторно");
+        }
+    }
+
+    /**
+     * Проверяет, что получены все части, сверяет SHA-256 и переносит файл на постоянное место.
+     * При несовпадении суммы полученные части сбрасываются и загрузку нужно повторить.
+     */
+    public UploadStatusDto complete(String uploadId, String owner) throws IOException {
+        Upload upload = find(uploadId, owner);
+        // Блокировка, а не synchronized: подсчёт суммы - долгий ввод-вывод
+        upload.lock.writeLock().lock();
+        try {
+            if (upload.completed) {
+                return upload.toStatus();
+            }
+            if (upload.receivedCount() != upload.totalChunks) {
+                throw new IllegalStateException("Получены не все части файла");
+            }
+            String actual = sha256(upload.path);
+            if (upload.expectedSha256 != null && !upload.expectedSha256.equalsIgnoreCase(actual)) {
+                upload.resetReceived();
+                log.warn("Контрольная сумма загрузки {} не совпала: ожидалась {}, получена {}",
+                        uploadId, upload.expectedSha256, actual);
+                throw new IllegalStateException("Контрольная сумма файла не совпала, загрузите файл заново");
+            }
+            String storedName = fileStorageService.promote(upload.path, uploadId, upload.fileName);
+            upload.complete(fileStorageService.resolve(storedName), storedName, actual);
+            log.info("Загрузка {} завершена: {} ({} байт)", uploadId, storedName, upload.size);
+            return upload.toStatus();
+        } finally {
+            upload.lock.writeLock().unlock();
+        }
+    }
+
+    public String completedFileName(String uploadId, String owner) {
+        Upload upload = find(uploadId, owner);
+        if (!upload.completed) {
+            throw new IllegalStateException("Загрузка файла не завершена");
+        }
+        return upload.storedFileName;
+    }
+
+    /**
+     * Отпускает загрузку после сохранения сдачи: с этого момента файл принадлежит сдаче
+     * и не удаляется по истечении срока.
+     */
+    public void claim(String uploadId, String owner) {
+        find(uploadId, owner);
+        uploads.invalidate(uploadId);
+    }
+
+    public void cancel(String uploadId, String owner) {
+        Upload upload = find(uploadId, owner);
+        uploads.invalidate(uploadId);
+        fileStorageService.deleteQuietly(upload.path);
+    }
+
+    // Caffeine удаляет просроченные записи лениво, поэтому периодически запускаем очистку явно
+    @Scheduled(fixedDelayString = "${app.upload.cleanup-interval:PT5M}")
+    public void cleanUpExpired() {
+        uploads.cleanUp();
+    }
+
+    private Upload find(String uploadId, String owner) {
+        return Optional.ofNullable(uploads.getIfPresent(uploadId))
+                .filter(upload -> upload.owner.equals(owner))
+                .orElseThrow(() -> new UploadNotFoundException("Загрузка не найдена: " + uploadId));
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class Upload {
+        private final String uploadId;
+        private final String owner;
+        private final String fileName;
+        private final long size;
+        private final String expectedSha256;
+        private final int chunkSize;
+        private final int totalChunks;
+        private final BitSet received;
+        private final BitSet writing;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile Path path;
+        private volatile boolean completed;
+        private volatile String storedFileName;
+        private volatile String sha256;
+
+        private Upload(String uploadId, String owner, String fileName, long size,
+                       String expectedSha256, Path path, int chunkSize) {
+            this.uploadId = uploadId;
+            this.owner = owner;
+            this.fileName = fileName;
+            this.size = size;
+            this.expectedSha256 = expectedSha256;
+            this.path = path;
+            this.chunkSize = chunkSize;
+            this.totalChunks = Math.toIntExact((size + chunkSize - 1) / chunkSize);
+            this.received = new BitSet(totalChunks);
+            this.writing = new BitSet(totalChunks);
+        }
+
+        // Одна и та же часть одновременно пишется одним запросом и до проверки не считается полученной
+        private synchronized boolean beginChunk(int index) {
+            if (writing.get(index)) {
+                return false;
+            }
+            writing.set(index);
+            received.clear(index);
+            return true;
+        }
+
+        private synchronized void endChunk(int index) {
+            writing.clear(index);
+        }
+
+        private synchronized void markReceived(int index) {
+            received.set(index);
+        }
+
+        private synchronized void resetReceived() {
+            received.clear();
+        }
+
+        private synchronized int receivedCount() {
+            return received.cardinality();
+        }
+
+        private synchronized void complete(Path storedPath, String storedFileName, String sha256) {
+            this.path = storedPath;
+            this.storedFileName = storedFileName;
+            this.sha256 = sha256;
+            this.completed = true;
+        }
+
+        private synchronized UploadStatusDto toStatus() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < totalChunks; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return new UploadStatusDto(uploadId, fileName, size, chunkSize, totalChunks,
+                    received.cardinality(), missing, completed, sha256);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package ru.rutmiit.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rutmiit.cache.SingleFlightCache;
+import ru.rutmiit.concurrency.HashedTimingWheel;
+import ru.rutmiit.events.AssignmentEvent;
+import ru.rutmiit.models.enums.AssignmentStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Перевод заданий в EXPIRED точно в момент дедлайна.
+ * Ближайшие дедлайны (в пределах горизонта) держатся в колесе таймеров в памяти;
+ * создание, удаление и перенос срока приходят событиями после коммита.
+ * В момент срабатывания статусы меняются пачками UPDATE ... WHERE id IN (...).
+ * Горизонт периодически дочитывается запросом по индексу (status, deadline), который
+ * заодно подхватывает дедлайны, пропущенные во время простоя или из-за ошибок.
+ */
+@Slf4j
+@Service
+public class DeadlineExpiryService {
+
+    // Просроченные ACTIVE-задания попадают в выборку и истекают на ближайшем тике
+    private static final String UPCOMING_SQL =
+            "SELECT id, deadline FROM assignments WHERE status = 'ACTIVE' AND deadline <= :until";
+
+    private static final String LOCK_ACTIVE_SQL =
+            "SELECT id, deadline FROM assignments WHERE status = 'ACTIVE' AND id IN (:ids) FOR UPDATE";
+
+    private static final String EXPIRE_SQL =
+            "UPDATE assignments SET status = 'EXPIRED', updated_at = :now WHERE status = 'ACTIVE' AND id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightCache singleFlightCache;
+    private final Duration horizon;
+    private final int chunkSize;
+    private final HashedTimingWheel<String> wheel;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile boolean loaded;
+
+    public DeadlineExpiryService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 SingleFlightCache singleFlightCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.deadlines.tick:1s}") Duration tick,
+                                 @Value("${app.deadlines.wheel-size:512}") int wheelSize,
+                                 @Value("${app.deadlines.horizon:PT1H}") Duration horizon,
+                                 @Value("${app.deadlines.chunk-size:500}") int chunkSize) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.singleFlightCache = singleFlightCache;
+        this.horizon = horizon;
+        this.chunkSize = chunkSize;
+        this.wheel = new HashedTimingWheel<>("deadline-wheel", tick, wheelSize, this::expire);
+        Gauge.builder("assignments.deadlines.scheduled", wheel, HashedTimingWheel::size)
+                .description("Дедлайны заданий в колесе таймеров")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loaded = true;
+        loadUpcoming();
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.close();
+    }
+
+    // Интервал меньше горизонта, чтобы дедлайн попадал в колесо заранее
+    @Scheduled(initialDelayString = "${app.deadlines.refill-interval:PT30M}",
+               fixedDelayString = "${app.deadlines.refill-interval:PT30M}")
+    public void loadUpcoming() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int[] counts = new int[2];
+        namedJdbcTemplate.query(UPCOMING_SQL, new MapSqlParameterSource("until", now.plus(horizon)),
+                (RowCallbackHandler) rs -> {
+                    LocalDateTime deadline = rs.getTimestamp("deadline").toLocalDateTime();
+                    wheel.schedule(rs.getString("id"), deadline.atZone(zone).toInstant());
+                    counts[deadline.isAfter(now) ? 0 : 1]++;
+                });
+        if (counts[1] > 0) {
+            log.info("Найдено {} заданий с пропущенным дедлайном, они будут закрыты", counts[1]);
+        }
+        log.debug("Загружено дедлайнов в пределах {}: {}", horizon, counts[0]);
+    }
+
+    @TransactionalEventListener
+    public void onAssignmentEvent(AssignmentEvent event) {
+        switch (event.type()) {
+            case CREATED, DEADLINE_CHANGED -> track(event.assignmentId(), event.deadline());
+            case DELETED -> wheel.cancel(event.assignmentId());
+            case STATUS_CHANGED -> {
+                if (event.status() != AssignmentStatus.ACTIVE) {
+                    wheel.cancel(event.assignmentId());
+                }
+            }
+        }
+    }
+
+    // Дедлайны за горизонтом подхватит следующая загрузка
+    private void track(String assignmentId, LocalDateTime deadline) {
+        if (deadline != null && deadline.isBefore(LocalDateTime.now().plus(horizon))) {
+            wheel.schedule(assignmentId, deadline.atZone(zone).toInstant());
+        } else {
+            wheel.cancel(assignmentId);
+        }
+    }
+
+    // Вызывается потоком колеса со всеми заданиями, чей срок наступил на этом тике
+    private void expire(List<String> assignmentIds) {
+        for (int i = 0; i < assignmentIds.size(); i += chunkSize) {
+            List<String> ids = assignmentIds.subList(i, Math.min(i + chunkSize, assignmentIds.size()));
+            try {
+                expireChunk(ids);
+            } catch (RuntimeException e) {
+                // Не закрытые задания остаются ACTIVE и вернутся в колесо при следующей загрузке
+                log.error("Не удалось закрыть {} заданий по дедлайну", ids.size(), e);
+            }
+        }
+    }
+
+    private void expireChunk(List<String> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> expired = new ArrayList<>(ids.size());
+        Map<String, LocalDateTime> postponed = new HashMap<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Блокировка строк исключает гонку с переносом срока; срок перепроверяется по базе
+            namedJdbcTemplate.query(LOCK_ACTIVE_SQL, new MapSqlParameterSource("ids", ids), (RowCallbackHandler) rs -> {
+                LocalDateTime deadline = rs.getTimestamp("deadline").toLocalDateTime();
+                if (deadline.isAfter(now)) {
+                    postponed.put(rs.getString("id"), deadline);
+                } else {
+                    expired.add(rs.getString("id"));
+                }
+            });
+            if (expired.isEmpty()) {
+                return;
+            }
+            namedJdbcTemplate.update(EXPIRE_SQL, new MapSqlParameterSource()
+                    .addValue("now", now)
+                    .addValue("ids", expired));
+            expired.forEach(id -> eventPublisher.publishEvent(
+                    AssignmentEvent.statusChanged(id, AssignmentStatus.ACTIVE, AssignmentStatus.EXPIRED)));
+        });
+
+        postponed.forEach(this::track);
+        expired.forEach(id -> singleFlightCache.evict(AssignmentService.DETAILS_CACHE, id));
+        if (!expired.isEmpty()) {
+            log.info("По дедлайну закрыто заданий: {}", expired.size());
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package ru.rutmiit.services;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
+@Slf4j
 @Service
 public class FileStorageService {
     
+    private static final String PART_SUFFIX = ".part";
+    private static final Pattern STORED_NAME = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}_");
+
     private final Path fileStorageLocation;
     
     public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
@@ -26,20 +32,60 @@ public class FileStorageService {
         }
     }
     
-    public String storeFile(MultipartFile file) {
-        String fileName = StringUtils.cleanPath(file.getOriginalFilename());
-        
+    // Пустой временный файл, в который части загрузки пишутся по смещениям
+    public Path createPartFile(String uploadId) {
+        Path part = fileStorageLocation.resolve(uploadId + PART_SUFFIX);
         try {
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Invalid file path: " + fileName);
-            }
-            
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
+            Files.deleteIfExists(part);
+            return Files.createFile(part);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create upload file " + part.getFileName(), ex);
+        }
+    }
+
+    // Переносит собранный файл на постоянное место в том же каталоге (без копирования данных)
+    public String promote(Path part, String uploadId, String originalFileName) {
+        String fileName = uploadId + "_" + sanitize(originalFileName);
+        Path target = fileStorageLocation.resolve(fileName);
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
             return fileName;
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + fileName, ex);
         }
     }
-}
\ No newline at end of file
+
+    public Path resolve(String fileName) {
+        return fileStorageLocation.resolve(fileName);
+    }
+
+    // Сохранённый файл по имени; пустой результат, если файла нет или имя ведёт за пределы каталога
+    public Optional<Path> load(String fileName) {
+        Path file = fileStorageLocation.resolve(fileName).normalize();
+        if (!file.startsWith(fileStorageLocation) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    // Исходное имя файла без префикса с идентификатором загрузки
+    public static String originalFileName(String storedFileName) {
+        return STORED_NAME.matcher(storedFileName).replaceFirst("");
+    }
+
+    public void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Не удалось удалить файл {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private static String sanitize(String originalFileName) {
+        String fileName = StringUtils.getFilename(StringUtils.cleanPath(originalFileName));
+        if (fileName == null || fileName.isBlank() || fileName.contains("..")) {
+            throw new IllegalArgumentException("Invalid file path: " + originalFileName);
+        }
+        return fileName;
+    }
+}
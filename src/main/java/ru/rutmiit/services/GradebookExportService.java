@@ -0,0 +1,101 @@
+package ru.rutmiit.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rutmiit.dto.GradebookRowDto;
+import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
+import ru.rutmiit.repositories.AssignmentRepository;
+import ru.rutmiit.repositories.SubmissionRepository;
+import ru.rutmiit.utils.csv.CsvWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка журнала оценок в CSV: строки читаются курсором и сразу пишутся в ответ,
+ * поэтому расход памяти не зависит от размера журнала.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GradebookExportService {
+
+    private static final String[] HEADER = {
+            "Задание", "Дедлайн", "Логин", "Студент", "Статус", "Оценка",
+            "Дата сдачи", "Дата оценки", "Комментарий преподавателя"
+    };
+
+    private final SubmissionRepository submissionRepository;
+    private final AssignmentRepository assignmentRepository;
+
+    /**
+     * Открывает поток для CSV (обычно выставляет заголовки ответа).
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+        Writer open() throws IOException;
+    }
+
+    /**
+     * Выгрузка журнала задания его преподавателю. Поток открывается только после проверок:
+     * после выставления заголовков CSV ошибка 404/403 скачалась бы как файл журнала.
+     */
+    public void exportAssignment(String assignmentId, String teacherUsername, ExportTarget target) throws IOException {
+        checkExportAllowed(assignmentId, teacherUsername);
+        Writer writer = target.open();
+        try (Stream<GradebookRowDto> rows = submissionRepository.streamGradebookByAssignment(assignmentId)) {
+            long count = write(rows, writer);
+            log.info("Выгружен журнал задания {}: {} строк", assignmentId, count);
+        }
+    }
+
+    public void exportTeacher(String teacherUsername, Writer writer) {
+        try (Stream<GradebookRowDto> rows = submissionRepository.streamGradebookByTeacher(teacherUsername)) {
+            long count = write(rows, writer);
+            log.info("Выгружен журнал преподавателя {}: {} строк", teacherUsername, count);
+        }
+    }
+
+    private void checkExportAllowed(String assignmentId, String teacherUsername) {
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new AssignmentNotFoundException("Задание с ID '" + assignmentId + "' не найдено");
+        }
+        if (!assignmentRepository.existsByIdAndTeacherUsername(assignmentId, teacherUsername)) {
+            throw new AccessDeniedException("Выгрузка доступна только преподавателю задания");
+        }
+    }
+
+    private long write(Stream<GradebookRowDto> rows, Writer writer) {
+        CsvWriter csv = new CsvWriter(writer);
+        long count = 0;
+        try {
+            // BOM, чтобы Excel открыл кириллицу в UTF-8
+            writer.write('\uFEFF');
+            csv.writeRow((Object[]) HEADER);
+            for (Iterator<GradebookRowDto> it = rows.iterator(); it.hasNext(); count++) {
+                GradebookRowDto row = it.next();
+                csv.writeRow(
+                        row.getAssignmentTitle(),
+                        row.getDeadline(),
+                        row.getStudentUsername(),
+                        row.getStudentFullName(),
+                        row.getStatus() != null ? row.getStatus().name() : "NOT_SUBMITTED",
+                        row.getGrade(),
+                        row.getSubmittedAt(),
+                        row.getGradedAt(),
+                        row.getTeacherComment());
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи журнала оценок", e);
+        }
+        return count;
+    }
+}
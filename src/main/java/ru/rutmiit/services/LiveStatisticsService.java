@@ -0,0 +1,153 @@
+package ru.rutmiit.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.rutmiit.dto.SystemStatisticsDto;
+import ru.rutmiit.events.AssignmentEvent;
+import ru.rutmiit.events.SubmissionEvent;
+import ru.rutmiit.models.enums.AssignmentStatus;
+import ru.rutmiit.models.enums.SubmissionStatus;
+import ru.rutmiit.repositories.StatisticsRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика для панели администратора в памяти: счётчики LongAdder заполняются агрегатными
+ * запросами при старте, затем обновляются событиями заданий и сдач после коммита.
+ * Периодическая сверка с базой исправляет расхождения из-за изменений в обход сервисов,
+ * поэтому чтение статистики не обращается к базе. Событие, обработанное между чтением из базы
+ * и выравниванием счётчика, сверкой перезаписывается; такая погрешность держится до следующей сверки.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveStatisticsService {
+
+    private final StatisticsRepository statisticsRepository;
+
+    private final Map<AssignmentStatus, LongAdder> assignments = counters(AssignmentStatus.class);
+    private final Map<SubmissionStatus, LongAdder> submissions = counters(SubmissionStatus.class);
+    private final LongAdder gradeSum = new LongAdder();
+    private final LongAdder gradeCount = new LongAdder();
+    private volatile LocalDateTime reconciledAt;
+
+    // Начальное заполнение - тоже через прокси, чтобы сверка шла в read-only транзакции
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.statistics.reconcile-interval:PT10M}",
+               fixedDelayString = "${app.statistics.reconcile-interval:PT10M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        Map<AssignmentStatus, Long> actualAssignments = new EnumMap<>(AssignmentStatus.class);
+        for (Map<String, Object> row : statisticsRepository.countAssignmentsByStatus()) {
+            actualAssignments.put((AssignmentStatus) row.get("status"), ((Number) row.get("count")).longValue());
+        }
+
+        Map<String, Long> submissionRow = statisticsRepository.getSubmissionStatistics();
+        Map<SubmissionStatus, Long> actualSubmissions = new EnumMap<>(SubmissionStatus.class);
+        actualSubmissions.put(SubmissionStatus.GRADED, valueOf(submissionRow, "graded"));
+        actualSubmissions.put(SubmissionStatus.SUBMITTED, valueOf(submissionRow, "submitted"));
+        actualSubmissions.put(SubmissionStatus.LATE, valueOf(submissionRow, "late"));
+        actualSubmissions.put(SubmissionStatus.REJECTED, valueOf(submissionRow, "rejected"));
+
+        Map<String, Long> grades = statisticsRepository.getGradeTotals();
+
+        long drift = 0;
+        for (AssignmentStatus status : AssignmentStatus.values()) {
+            drift += adjust(assignments.get(status), actualAssignments.getOrDefault(status, 0L));
+        }
+        for (SubmissionStatus status : SubmissionStatus.values()) {
+            drift += adjust(submissions.get(status), actualSubmissions.get(status));
+        }
+        drift += adjust(gradeCount, valueOf(grades, "gradeCount"));
+        adjust(gradeSum, valueOf(grades, "gradeSum"));
+
+        if (reconciledAt != null && drift != 0) {
+            log.warn("Сверка статистики: счётчики разошлись с базой на {}", drift);
+        }
+        reconciledAt = LocalDateTime.now();
+        log.debug("Статистика сверена с базой");
+    }
+
+    @TransactionalEventListener
+    public void onAssignmentEvent(AssignmentEvent event) {
+        if (event.previousStatus() != null) {
+            assignments.get(event.previousStatus()).decrement();
+        }
+        if (event.status() != null) {
+            assignments.get(event.status()).increment();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSubmissionEvent(SubmissionEvent event) {
+        if (event.previousStatus() != null) {
+            submissions.get(event.previousStatus()).decrement();
+        }
+        if (event.status() != null) {
+            submissions.get(event.status()).increment();
+        }
+        if (event.previousGrade() != null) {
+            gradeSum.add(-event.previousGrade());
+            gradeCount.decrement();
+        }
+        if (event.grade() != null) {
+            gradeSum.add(event.grade());
+            gradeCount.increment();
+        }
+    }
+
+    public SystemStatisticsDto snapshot() {
+        Map<String, Long> assignmentsByStatus = sums(assignments);
+        Map<String, Long> submissionsByStatus = sums(submissions);
+        long graded = gradeCount.sum();
+        double average = graded > 0 ? (double) gradeSum.sum() / graded : 0.0;
+
+        return new SystemStatisticsDto(
+                assignmentsByStatus,
+                submissionsByStatus,
+                assignmentsByStatus.values().stream().mapToLong(Long::longValue).sum(),
+                submissionsByStatus.values().stream().mapToLong(Long::longValue).sum(),
+                graded,
+                average,
+                reconciledAt);
+    }
+
+    // Доводит счётчик до значения из базы прибавлением разницы. Обновление, пришедшее после
+    // чтения из базы, но до вызова, поглощается разницей и вернётся только при следующей сверке
+    private static long adjust(LongAdder counter, long actual) {
+        long delta = actual - counter.sum();
+        if (delta != 0) {
+            counter.add(delta);
+        }
+        return Math.abs(delta);
+    }
+
+    private static long valueOf(Map<String, ?> row, String key) {
+        Object value = row == null ? null : row.get(key);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> counters(Class<E> type) {
+        Map<E, LongAdder> counters = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) {
+            counters.put(constant, new LongAdder());
+        }
+        return counters;
+    }
+
+    private static <E extends Enum<E>> Map<String, Long> sums(Map<E, LongAdder> counters) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.forEach((key, counter) -> result.put(key.name(), Math.max(0, counter.sum())));
+        return result;
+    }
+}
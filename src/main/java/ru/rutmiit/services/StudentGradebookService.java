@@ -0,0 +1,58 @@
+package ru.rutmiit.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.rutmiit.dto.StudentGradeRowDto;
+import ru.rutmiit.dto.StudentGradeSummaryDto;
+import ru.rutmiit.events.SubmissionEvent;
+import ru.rutmiit.repositories.SubmissionRepository;
+
+/**
+ * Журнал оценок студента: сводка - один агрегатный запрос с кешем на студента,
+ * строки - постраничная проекция без текста решения.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StudentGradebookService {
+
+    public static final String SUMMARY_CACHE = "studentGradeSummary";
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final SubmissionRepository submissionRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = SUMMARY_CACHE, key = "#studentUsername")
+    public StudentGradeSummaryDto getSummary(String studentUsername) {
+        return submissionRepository.getGradeSummaryByStudentUsername(studentUsername);
+    }
+
+    public Page<StudentGradeRowDto> getRows(String studentUsername, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                Sort.by(Sort.Order.desc("submittedAt"), Sort.Order.asc("id")));
+        return submissionRepository.findGradeRowsByStudentUsername(studentUsername, pageable);
+    }
+
+    // Сводка меняется при сдаче, оценке и удалении; сбрасываем её после коммита.
+    // Транзакция класса здесь не нужна, а Spring запрещает её на @TransactionalEventListener
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onSubmissionEvent(SubmissionEvent event) {
+        Cache cache = cacheManager.getCache(SUMMARY_CACHE);
+        if (cache != null && event.studentUsername() != null) {
+            cache.evict(event.studentUsername());
+            log.debug("Сброшена сводка оценок студента {}", event.studentUsername());
+        }
+    }
+}
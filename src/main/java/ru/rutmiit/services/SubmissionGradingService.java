@@ -0,0 +1,317 @@
+package ru.rutmiit.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rutmiit.cache.SingleFlightCache;
+import ru.rutmiit.dto.BulkGradeDto;
+import ru.rutmiit.dto.BulkGradeItemDto;
+import ru.rutmiit.dto.GradeImportReportDto;
+import ru.rutmiit.dto.GradeImportRowDto;
+import ru.rutmiit.events.SubmissionEvent;
+import ru.rutmiit.models.enums.SubmissionStatus;
+import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
+import ru.rutmiit.repositories.AssignmentRepository;
+import ru.rutmiit.utils.csv.CsvReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Массовое выставление оценок (JSON и импорт CSV). Сначала проверяются все строки:
+ * сдачи находятся одним-двумя запросами, без загрузки сущностей. Если ошибок нет,
+ * оценки записываются JDBC-пачками UPDATE в одной транзакции; иначе не меняется ничего.
+ */
+@Slf4j
+@Service
+public class SubmissionGradingService {
+
+    private static final int MAX_ROWS = 5000;
+    private static final int MAX_COMMENT_LENGTH = 1000;
+    private static final int MAX_IN_LIST = 1000;
+
+    private static final String SUBMISSIONS_BY_ASSIGNMENT_SQL =
+            "SELECT s.id, s.assignment_id, u.username, s.status, s.grade FROM submissions s " +
+            "JOIN users u ON u.id = s.student_id WHERE s.assignment_id = ? ORDER BY s.submitted_at";
+
+    private static final String OWNED_SUBMISSIONS_SQL =
+            "SELECT s.id, s.assignment_id, u.username, s.status, s.grade FROM submissions s " +
+            "JOIN users u ON u.id = s.student_id " +
+            "JOIN assignments a ON a.id = s.assignment_id " +
+            "JOIN users t ON t.id = a.teacher_id " +
+            "WHERE t.username = :teacher AND s.id IN (:ids)";
+
+    // Пустой комментарий не затирает уже написанный
+    private static final String UPDATE_GRADE_SQL =
+            "UPDATE submissions SET grade = ?, teacher_comment = COALESCE(?, teacher_comment), " +
+            "status = 'GRADED', graded_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final Set<String> ID_COLUMNS = Set.of("submissionid", "submission_id", "id");
+    private static final Set<String> USERNAME_COLUMNS = Set.of("username", "login", "логин");
+    private static final Set<String> GRADE_COLUMNS = Set.of("grade", "оценка");
+    private static final Set<String> COMMENT_COLUMNS = Set.of("comment", "teachercomment", "teacher_comment",
+            "комментарий", "комментарий преподавателя");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AssignmentRepository assignmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightCache singleFlightCache;
+    private final int chunkSize;
+
+    public SubmissionGradingService(JdbcTemplate jdbcTemplate,
+                                    NamedParameterJdbcTemplate namedJdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    AssignmentRepository assignmentRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    SingleFlightCache singleFlightCache,
+                                    @Value("${app.bulk.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.assignmentRepository = assignmentRepository;
+        this.eventPublisher = eventPublisher;
+        this.singleFlightCache = singleFlightCache;
+        this.chunkSize = chunkSize;
+    }
+
+    private record GradeInput(int line, String submissionId, String username, String grade, String comment) {
+    }
+
+    private record SubmissionRef(String id, String assignmentId, String username, SubmissionStatus status, Integer grade) {
+    }
+
+    private record GradeUpdate(SubmissionRef submission, int grade, String comment) {
+    }
+
+    public GradeImportReportDto gradeAll(BulkGradeDto dto, String teacherUsername) {
+        List<GradeInput> inputs = new ArrayList<>(dto.getGrades().size());
+        int line = 1;
+        for (BulkGradeItemDto item : dto.getGrades()) {
+            inputs.add(new GradeInput(line++, item.getSubmissionId(), null,
+                    String.valueOf(item.getGrade()), blankToNull(item.getTeacherComment())));
+        }
+        Map<String, SubmissionRef> byId = findOwnedSubmissions(inputs, teacherUsername);
+        return apply(inputs, byId, Map.of());
+    }
+
+    /**
+     * Импорт оценок по заданию из CSV. Строка находит сдачу по её ID или по логину студента
+     * (берётся последняя сдача); формат совместим с выгрузкой журнала оценок.
+     */
+    public GradeImportReportDto importCsv(String assignmentId, String teacherUsername, Reader csv) throws IOException {
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new AssignmentNotFoundException("Задание с ID '" + assignmentId + "' не найдено");
+        }
+        if (!assignmentRepository.existsByIdAndTeacherUsername(assignmentId, teacherUsername)) {
+            throw new AccessDeniedException("Импорт оценок доступен только преподавателю задания");
+        }
+
+        List<GradeInput> inputs = parseCsv(csv);
+        Map<String, SubmissionRef> byId = new HashMap<>();
+        Map<String, SubmissionRef> byUsername = new HashMap<>();
+        // Сдачи отсортированы по времени, поэтому по логину остаётся последняя
+        jdbcTemplate.query(SUBMISSIONS_BY_ASSIGNMENT_SQL, rs -> {
+            SubmissionRef ref = toRef(rs);
+            byId.put(ref.id(), ref);
+            byUsername.put(ref.username().toLowerCase(Locale.ROOT), ref);
+        }, assignmentId);
+        return apply(inputs, byId, byUsername);
+    }
+
+    private GradeImportReportDto apply(List<GradeInput> inputs,
+                                       Map<String, SubmissionRef> byId,
+                                       Map<String, SubmissionRef> byUsername) {
+        long started = System.nanoTime();
+        List<GradeImportRowDto> rows = new ArrayList<>(inputs.size());
+        List<GradeUpdate> updates = new ArrayList<>(inputs.size());
+        Map<String, Integer> seen = new HashMap<>();
+        int skipped = 0;
+        int failed = 0;
+
+        for (GradeInput input : inputs) {
+            GradeImportRowDto row = new GradeImportRowDto(input.line(), input.submissionId(), input.username(),
+                    null, GradeImportRowDto.Status.UPDATED, null);
+            rows.add(row);
+
+            if (input.grade() == null) {
+                row.setStatus(GradeImportRowDto.Status.SKIPPED);
+                row.setMessage("Оценка не указана");
+                skipped++;
+                continue;
+            }
+            String error = null;
+            Integer grade = parseGrade(input.grade());
+            SubmissionRef submission = input.submissionId() != null
+                    ? byId.get(input.submissionId())
+                    : input.username() != null ? byUsername.get(input.username().toLowerCase(Locale.ROOT)) : null;
+
+            if (grade == null) {
+                error = "Оценка должна быть целым числом от 1 до 5";
+            } else if (input.comment() != null && input.comment().length() > MAX_COMMENT_LENGTH) {
+                error = "Комментарий не длиннее " + MAX_COMMENT_LENGTH + " символов";
+            } else if (submission == null) {
+                error = input.submissionId() == null && input.username() != null
+                        ? "У студента нет сдачи по этому заданию"
+                        : "Сдача не найдена";
+            } else if (seen.containsKey(submission.id())) {
+                error = "Сдача уже встречается в строке " + seen.get(submission.id());
+            }
+
+            row.setGrade(grade);
+            if (submission != null) {
+                row.setSubmissionId(submission.id());
+                row.setUsername(submission.username());
+            }
+            if (error != null) {
+                row.setStatus(GradeImportRowDto.Status.ERROR);
+                row.setMessage(error);
+                failed++;
+                continue;
+            }
+            seen.put(submission.id(), input.line());
+            updates.add(new GradeUpdate(submission, grade, input.comment()));
+        }
+
+        if (failed > 0 || updates.isEmpty()) {
+            // Ни одна оценка не записывается, если в данных есть хотя бы одна ошибка
+            rows.stream()
+                    .filter(row -> row.getStatus() == GradeImportRowDto.Status.UPDATED)
+                    .forEach(row -> {
+                        row.setStatus(GradeImportRowDto.Status.SKIPPED);
+                        row.setMessage("Не применено из-за ошибок в других строках");
+                    });
+            return new GradeImportReportDto(false, inputs.size(), 0, inputs.size() - failed, failed, rows);
+        }
+
+        write(updates);
+        log.info("Массово выставлено оценок: {} за {} мс", updates.size(), (System.nanoTime() - started) / 1_000_000);
+        return new GradeImportReportDto(true, inputs.size(), updates.size(), skipped, 0, rows);
+    }
+
+    private void write(List<GradeUpdate> updates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_GRADE_SQL, updates, chunkSize, (ps, update) -> {
+                ps.setInt(1, update.grade());
+                ps.setString(2, update.comment());
+                ps.setTimestamp(3, now);
+                ps.setTimestamp(4, now);
+                ps.setString(5, update.submission().id());
+            });
+            // События обрабатываются после коммита (статистика, сводки оценок студентов)
+            for (GradeUpdate update : updates) {
+                SubmissionRef submission = update.submission();
+                eventPublisher.publishEvent(SubmissionEvent.graded(submission.id(), submission.assignmentId(),
+                        submission.username(), submission.status(), submission.grade(), update.grade()));
+            }
+        });
+
+        updates.stream()
+                .map(update -> update.submission().assignmentId())
+                .distinct()
+                .forEach(id -> singleFlightCache.evict(AssignmentService.DETAILS_CACHE, id));
+    }
+
+    private Map<String, SubmissionRef> findOwnedSubmissions(List<GradeInput> inputs, String teacherUsername) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(inputs.stream().map(GradeInput::submissionId).toList()));
+        Map<String, SubmissionRef> result = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("teacher", teacherUsername)
+                    .addValue("ids", ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size())));
+            namedJdbcTemplate.query(OWNED_SUBMISSIONS_SQL, params, rs -> {
+                SubmissionRef ref = toRef(rs);
+                result.put(ref.id(), ref);
+            });
+        }
+        return result;
+    }
+
+    private List<GradeInput> parseCsv(Reader source) throws IOException {
+        CsvReader csv = new CsvReader(source);
+        List<String> header = csv.readRow();
+        if (header == null) {
+            throw new IllegalArgumentException("Файл пуст");
+        }
+        int idColumn = column(header, ID_COLUMNS);
+        int usernameColumn = column(header, USERNAME_COLUMNS);
+        int gradeColumn = column(header, GRADE_COLUMNS);
+        int commentColumn = column(header, COMMENT_COLUMNS);
+        if (gradeColumn < 0 || (idColumn < 0 && usernameColumn < 0)) {
+            throw new IllegalArgumentException("В заголовке нужны столбцы оценки и ID сдачи или логина студента");
+        }
+
+        List<GradeInput> inputs = new ArrayList<>();
+        List<String> row;
+        while ((row = csv.readRow()) != null) {
+            if (row.size() == 1 && row.get(0).isEmpty()) {
+                continue;
+            }
+            if (inputs.size() == MAX_ROWS) {
+                throw new IllegalArgumentException("Не более " + MAX_ROWS + " строк за один импорт");
+            }
+            inputs.add(new GradeInput(csv.getLine(),
+                    blankToNull(value(row, idColumn)),
+                    blankToNull(value(row, usernameColumn)),
+                    blankToNull(value(row, gradeColumn)),
+                    blankToNull(value(row, commentColumn))));
+        }
+        return inputs;
+    }
+
+    private static int column(List<String> header, Set<String> names) {
+        for (int i = 0; i < header.size(); i++) {
+            if (names.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String value(List<String> row, int column) {
+        return column >= 0 && column < row.size() ? row.get(column) : null;
+    }
+
+    private static Integer parseGrade(String text) {
+        try {
+            int grade = Integer.parseInt(text.trim());
+            return grade >= 1 && grade <= 5 ? grade : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static SubmissionRef toRef(ResultSet rs) throws SQLException {
+        int grade = rs.getInt("grade");
+        boolean noGrade = rs.wasNull();
+        return new SubmissionRef(
+                rs.getString("id"),
+                rs.getString("assignment_id"),
+                rs.getString("username"),
+                SubmissionStatus.valueOf(rs.getString("status")),
+                noGrade ? null : grade);
+    }
+}
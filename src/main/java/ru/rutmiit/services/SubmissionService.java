@@ -2,10 +2,12 @@ package ru.rutmiit.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.rutmiit.dto.GradeSubmissionDto;
 import ru.rutmiit.dto.SubmitAssignmentDto;
+import ru.rutmiit.events.SubmissionEvent;
 import ru.rutmiit.models.entities.Assignment;
 import ru.rutmiit.models.entities.Submission;
 import ru.rutmiit.models.entities.User;
@@ -16,7 +18,6 @@ import ru.rutmiit.repositories.SubmissionRepository;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -27,6 +28,7 @@ public class SubmissionService {
     private final SubmissionRepository submissionRepository;
     private final AssignmentRepository assignmentRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public void submitAssignment(String assignmentId, String studentUsername, SubmitAssignmentDto submissionDto) {
@@ -56,6 +58,7 @@ public class SubmissionService {
                 .build();
         
         submissionRepository.save(submission);
+        eventPublisher.publishEvent(SubmissionEvent.submitted(submission.getId(), assignmentId, studentUsername, status));
         log.info("Студент {} сдал задание: {}", studentUsername, assignment.getTitle());
     }
     
@@ -64,12 +67,15 @@ public class SubmissionService {
         Submission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new IllegalArgumentException("Сдача не найдена"));
         
+        SubmissionEvent event = SubmissionEvent.graded(submissionId, submission.getAssignment().getId(),
+                submission.getStudent().getUsername(), submission.getStatus(), submission.getGrade(), gradeDto.getGrade());
         submission.setGrade(gradeDto.getGrade());
         submission.setTeacherComment(gradeDto.getTeacherComment());
         submission.setStatus(SubmissionStatus.GRADED);
         submission.setGradedAt(LocalDateTime.now());
         
         submissionRepository.save(submission);
+        eventPublisher.publishEvent(event);
         log.info("Оценено задание ID: {}, оценка: {}", submissionId, gradeDto.getGrade());
     }
     
@@ -86,30 +92,4 @@ public class SubmissionService {
         
         return result;
     }
-    
-    public Object getStudentGrades(String studentUsername) {
-        User student = userService.findByUsername(studentUsername)
-                .orElseThrow(() -> new IllegalArgumentException("Студент не найден"));
-        
-        List<Submission> submissions = submissionRepository.findByStudent(student);
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("totalAssignments", submissions.size());
-        
-        long completed = submissions.stream()
-                .filter(s -> s.getGrade() != null)
-                .count();
-        result.put("completedAssignments", completed);
-        
-        double average = submissions.stream()
-                .filter(s -> s.getGrade() != null)
-                .mapToInt(Submission::getGrade)
-                .average()
-                .orElse(0.0);
-        result.put("averageGrade", String.format("%.1f", average));
-        
-        result.put("submissions", submissions);
-        
-        return result;
-    }
 }
\ No newline at end of file
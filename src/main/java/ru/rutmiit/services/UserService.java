@@ -1,19 +1,25 @@
 package ru.rutmiit.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.rutmiit.dto.StudentInfoDto;
 import ru.rutmiit.models.entities.User;
 import ru.rutmiit.models.enums.UserRole;
 import ru.rutmiit.repositories.UserRepository;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    public static final int MIN_SEARCH_LENGTH = 2;
+    public static final int MAX_SEARCH_RESULTS = 20;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -58,4 +64,25 @@ public class UserService {
     public long countByRole(UserRole role) {
         return userRepository.countByRole(role);
     }
-}
\ No newline at end of file
+
+    /**
+     * Первые limit студентов, у которых ФИО или логин содержат query (без учёта регистра).
+     * Слишком короткий запрос даёт пустой список, а не выборку по всей таблице.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentInfoDto> searchStudents(String query, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            return List.of();
+        }
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return userRepository.searchStudents("%" + escaped + "%", escaped + "%", Limit.of(size));
+    }
+
+    // Подписи уже выбранных студентов при повторном показе формы
+    @Transactional(readOnly = true)
+    public List<StudentInfoDto> findStudentInfos(List<String> ids) {
+        return ids == null || ids.isEmpty() ? List.of() : userRepository.findStudentInfosByIds(ids);
+    }
+}
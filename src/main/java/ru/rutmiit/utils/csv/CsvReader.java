@@ -0,0 +1,119 @@
+package ru.rutmiit.utils.csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Минимальное чтение CSV по RFC 4180: кавычки, удвоенные кавычки и переводы строк внутри значений.
+ * Разделитель (';' или ',') определяется по строке заголовка, BOM в начале файла пропускается.
+ * Апостроф, которым {@link CsvWriter} экранирует формулы, снимается.
+ */
+public class CsvReader {
+
+    private static final int HEADER_LOOKAHEAD = 8192;
+
+    private final BufferedReader reader;
+    private char separator;
+    private int line;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * @return значения следующей записи или null в конце файла
+     */
+    public List<String> readRow() throws IOException {
+        if (line == 0) {
+            skipBom();
+            separator = detectSeparator();
+        }
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (; c != -1; c = reader.read()) {
+            if (quoted) {
+                if (c != '"') {
+                    value.append((char) c);
+                } else if (peek() == '"') {
+                    reader.read();
+                    value.append('"');
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == separator) {
+                values.add(unescape(value.toString(), wasQuoted));
+                value.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    reader.read();
+                }
+                break;
+            } else {
+                value.append((char) c);
+            }
+        }
+        values.add(unescape(value.toString(), wasQuoted));
+        return values;
+    }
+
+    // Номер последней прочитанной записи (1 - заголовок)
+    public int getLine() {
+        return line;
+    }
+
+    private int peek() throws IOException {
+        reader.mark(1);
+        int c = reader.read();
+        reader.reset();
+        return c;
+    }
+
+    private void skipBom() throws IOException {
+        if (peek() == '\uFEFF') {
+            reader.read();
+        }
+    }
+
+    // Первый разделитель вне кавычек в строке заголовка; по умолчанию - точка с запятой, как в выгрузке
+    private char detectSeparator() throws IOException {
+        reader.mark(HEADER_LOOKAHEAD);
+        try {
+            boolean quoted = false;
+            for (int i = 0, c; i < HEADER_LOOKAHEAD && (c = reader.read()) != -1; i++) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (c == ';' || c == ',')) {
+                    return (char) c;
+                } else if (!quoted && (c == '\n' || c == '\r')) {
+                    break;
+                }
+            }
+            return ';';
+        } finally {
+            reader.reset();
+        }
+    }
+
+    private static String unescape(String value, boolean quoted) {
+        String text = quoted ? value : value.trim();
+        if (text.length() > 1 && text.charAt(0) == '\'' && "=+-@".indexOf(text.charAt(1)) >= 0) {
+            return text.substring(1);
+        }
+        return text;
+    }
+}
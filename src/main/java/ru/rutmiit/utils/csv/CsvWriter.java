@@ -0,0 +1,51 @@
+package ru.rutmiit.utils.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Минимальная запись CSV поверх {@link Writer}; строки не накапливаются в памяти.
+ * Диалект Excel для русской локали: разделитель ';', строки через CRLF, значения с разделителем,
+ * кавычками или переводом строки берутся в кавычки, кавычки внутри удваиваются.
+ * Значения, начинающиеся с символов формул (=, +, -, @), экранируются апострофом,
+ * чтобы табличные редакторы не выполняли их.
+ */
+public class CsvWriter {
+
+    private static final char SEPARATOR = ';';
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writeValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !(value instanceof Number)) {
+            text = "'" + text;
+        }
+        boolean quote = text.indexOf(SEPARATOR) >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
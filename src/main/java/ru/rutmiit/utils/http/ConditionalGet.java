@@ -0,0 +1,81 @@
+package ru.rutmiit.utils.http;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Условный GET для HTML-страниц: 304 отвечается по дешёвой версии данных до загрузки модели и рендеринга.
+ * Страница зависит не только от данных, но и от того, кому она отрисована (имя и роль в меню,
+ * CSRF-токен формы выхода), поэтому в слабый ETag входят версия, пользователь с ролями и
+ * идентификатор сессии или CSRF-cookie, а также адрес с параметрами - в виде хеша, чтобы не раскрывать их в заголовке.
+ * Запрос с flash-атрибутами (сообщение после редиректа) всегда рендерится полностью.
+ */
+public final class ConditionalGet {
+
+    private static final String CSRF_COOKIE = "XSRF-TOKEN";
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @return true, если ответ 304 уже сформирован и обработчику нужно вернуть null
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           LocalDateTime lastModified, Object... version) {
+        // Браузер может хранить страницу, но обязан сверяться перед каждым показом
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+        if (flash != null && !flash.isEmpty()) {
+            return false;
+        }
+
+        StringBuilder source = new StringBuilder(request.getRequestURI()).append('?')
+                .append(request.getQueryString()).append('|');
+        for (Object part : version) {
+            source.append(part).append('|');
+        }
+        source.append(lastModified).append('|').append(viewer(request));
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        // HTTP-даты имеют точность до секунды
+        long lastModifiedMillis = lastModified == null ? -1
+                : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 1000 * 1000;
+        return new ServletWebRequest(request, response).checkNotModified(etag, lastModifiedMillis);
+    }
+
+    private static String viewer(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication == null ? "" : authentication.getName() + authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(",", "[", "]"));
+        // После входа меняется и сессия, и CSRF-токен; в режиме без сессий токен лежит в cookie
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return user + "|" + session.getId();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (CSRF_COOKIE.equals(cookie.getName())) {
+                    return user + "|" + cookie.getValue();
+                }
+            }
+        }
+        return user;
+    }
+}
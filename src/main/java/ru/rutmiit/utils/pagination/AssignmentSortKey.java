@@ -0,0 +1,61 @@
+package ru.rutmiit.utils.pagination;
+
+import ru.rutmiit.dto.ShowAssignmentDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Разрешённые ключи сортировки списков заданий.
+ * Для каждого ключа в таблице assignments есть составной индекс (ключ, id),
+ * поэтому и OFFSET-страницы, и keyset-продолжения идут по индексу.
+ */
+public enum AssignmentSortKey {
+    DEADLINE("deadline") {
+        @Override
+        public Object valueOf(ShowAssignmentDto dto) {
+            return dto.getDeadline();
+        }
+
+        @Override
+        public Object parse(String value) {
+            return LocalDateTime.parse(value);
+        }
+    },
+    TITLE("title") {
+        @Override
+        public Object valueOf(ShowAssignmentDto dto) {
+            return dto.getTitle();
+        }
+
+        @Override
+        public Object parse(String value) {
+            return value;
+        }
+    };
+
+    private final String property;
+
+    AssignmentSortKey(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public abstract Object valueOf(ShowAssignmentDto dto);
+
+    public abstract Object parse(String value);
+
+    /**
+     * Неизвестные значения параметра sortBy не пропускаются в запрос - берётся сортировка по дедлайну.
+     */
+    public static AssignmentSortKey fromParam(String param) {
+        for (AssignmentSortKey key : values()) {
+            if (key.property.equalsIgnoreCase(param)) {
+                return key;
+            }
+        }
+        return DEADLINE;
+    }
+}
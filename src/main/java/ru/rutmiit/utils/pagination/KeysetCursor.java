@@ -0,0 +1,35 @@
+package ru.rutmiit.utils.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция продолжения keyset-пагинации: ключ сортировки, его значение и id последней строки.
+ * Наружу отдаётся непрозрачным токеном (base64url), чтобы клиент не собирал условия сам.
+ */
+public record KeysetCursor(AssignmentSortKey sortKey, Object value, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если токен повреждён или подделан
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Некорректный курсор страницы");
+            }
+            AssignmentSortKey sortKey = AssignmentSortKey.valueOf(parts[0]);
+            return new KeysetCursor(sortKey, sortKey.parse(parts[2]), parts[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы", e);
+        }
+    }
+}
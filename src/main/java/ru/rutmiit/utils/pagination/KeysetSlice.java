@@ -0,0 +1,10 @@
+package ru.rutmiit.utils.pagination;
+
+import java.util.List;
+
+/**
+ * Срез списка без подсчёта общего количества: только признак следующей страницы
+ * и курсор для её загрузки.
+ */
+public record KeysetSlice<T>(List<T> content, boolean hasNext, String nextCursor) {
+}
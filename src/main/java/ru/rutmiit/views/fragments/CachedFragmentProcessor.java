@@ -0,0 +1,87 @@
+package ru.rutmiit.views.fragments;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * cache:key и необязательный cache:ttl. При попадании элемент целиком заменяется сохранённым HTML;
+ * при промахе разметка элемента отрисовывается отдельно в текущем контексте (с локальными
+ * переменными th:each и th:object), сохраняется и вставляется так же. Вставленный текст
+ * не обрабатывается повторно: [[...]] из пользовательских данных не станет выражением.
+ */
+class CachedFragmentProcessor extends AbstractAttributeModelProcessor {
+
+    private static final String KEY_ATTRIBUTE = "key";
+    private static final String TTL_ATTRIBUTE = "ttl";
+    private static final int PRECEDENCE = 100;
+
+    private final FragmentCache fragmentCache;
+
+    CachedFragmentProcessor(String dialectPrefix, FragmentCache fragmentCache) {
+        super(TemplateMode.HTML, dialectPrefix, null, false, KEY_ATTRIBUTE, true, PRECEDENCE, true);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                             String attributeValue, IElementModelStructureHandler structureHandler) {
+        IModelFactory modelFactory = context.getModelFactory();
+        IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+        String ttlValue = tag.getAttributeValue(getDialectPrefix(), TTL_ATTRIBUTE);
+        // Атрибуты диалекта убираются до отрисовки, иначе отдельный рендеринг снова попал бы сюда
+        tag = modelFactory.removeAttribute(modelFactory.removeAttribute(tag, attributeName), getDialectPrefix(), TTL_ATTRIBUTE);
+        model.replace(0, tag);
+
+        Object key = StandardExpressions.getExpressionParser(context.getConfiguration())
+                .parseExpression(context, attributeValue)
+                .execute(context);
+        if (key == null) {
+            return;
+        }
+
+        String cacheKey = key.toString();
+        String html = fragmentCache.get(cacheKey);
+        if (html == null) {
+            long started = System.nanoTime();
+            html = render(context, model, tag);
+            Duration ttl = ttlValue != null ? DurationStyle.detectAndParse(ttlValue) : fragmentCache.getDefaultTtl();
+            fragmentCache.put(cacheKey, html, ttl, System.nanoTime() - started);
+        }
+
+        model.reset();
+        model.add(modelFactory.createText(html));
+        structureHandler.setInliner(NoOpInliner.INSTANCE);
+    }
+
+    private static String render(ITemplateContext context, IModel model, IProcessableElementTag tag) {
+        StringWriter markup = new StringWriter();
+        try {
+            model.write(markup);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+        // Разобранная разметка кэшируется движком по её тексту - повторный промах не парсит заново
+        TemplateModel fragment = templateManager.parseString(context.getTemplateData(), markup.toString(),
+                tag.getLine(), tag.getCol(), context.getTemplateMode(), true);
+        StringWriter html = new StringWriter(markup.getBuffer().length());
+        templateManager.process(fragment, context, html);
+        return html.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.rutmiit.views.fragments;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отрисованные фрагменты шаблонов (атрибут cache:key, см. {@link FragmentCacheDialect}).
+ * Хранится только в памяти узла, ограничен по числу записей; срок жизни задаётся на фрагмент.
+ * Ключи заданий начинаются с "assignment:{id}:", чтобы сервисы могли сбросить все фрагменты
+ * задания через {@link #evictPrefix}. Сэкономленное время рендеринга - метрика template.fragment.cache.saved.
+ */
+@Slf4j
+public class FragmentCache {
+
+    private final Cache<String, Fragment> fragments;
+    private final Duration defaultTtl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter savedSeconds;
+    private final Timer renderTimer;
+
+    record Fragment(String html, long ttlNanos, long renderNanos) {
+    }
+
+    public FragmentCache(long maxSize, Duration defaultTtl, MeterRegistry meterRegistry) {
+        this.defaultTtl = defaultTtl;
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Fragment>() {
+                    @Override
+                    public long expireAfterCreate(String key, Fragment fragment, long currentTime) {
+                        return fragment.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Fragment fragment, long currentTime, long currentDuration) {
+                        return fragment.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Fragment fragment, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.savedSeconds = Counter.builder("template.fragment.cache.saved")
+                .description("Время рендеринга, сэкономленное попаданиями в кэш фрагментов")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("template.fragment.render")
+                .description("Рендеринг кэшируемых фрагментов при промахе")
+                .register(meterRegistry);
+        meterRegistry.gauge("template.fragment.cache.size", Tags.empty(), fragments, Cache::estimatedSize);
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    /**
+     * @return HTML фрагмента или null при промахе
+     */
+    public String get(String key) {
+        Fragment fragment = fragments.getIfPresent(key);
+        if (fragment == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        savedSeconds.increment(fragment.renderNanos() / 1e9);
+        return fragment.html();
+    }
+
+    public void put(String key, String html, Duration ttl, long renderNanos) {
+        renderTimer.record(renderNanos, TimeUnit.NANOSECONDS);
+        if (!ttl.isZero() && !ttl.isNegative()) {
+            fragments.put(key, new Fragment(html, ttl.toNanos(), renderNanos));
+        }
+    }
+
+    public void evict(String key) {
+        fragments.invalidate(key);
+    }
+
+    /**
+     * Удаляет все фрагменты с ключом, начинающимся с prefix (например, "assignment:{id}:").
+     * Проходит по всем записям, поэтому предназначено для записи данных, а не для горячего пути.
+     */
+    public void evictPrefix(String prefix) {
+        fragments.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("Сброшены фрагменты шаблонов с префиксом {}", prefix);
+    }
+
+    public void clear() {
+        fragments.invalidateAll();
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("template.fragment.cache.gets")
+                .description("Обращения к кэшу фрагментов шаблонов")
+                .tag("result", result)
+                .register(registry);
+    }
+}
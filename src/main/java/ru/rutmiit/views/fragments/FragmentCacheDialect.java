@@ -0,0 +1,40 @@
+package ru.rutmiit.views.fragments;
+
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.processor.StandardXmlNsTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.util.Set;
+
+/**
+ * Диалект cache: кэширование отрисованных фрагментов.
+ * <pre>
+ * &lt;div th:each="assignment : ${assignments}"
+ *      cache:key="|assignment:${assignment.id}:card:${assignment.updatedAt}|" cache:ttl="10m"&gt;
+ * </pre>
+ * Ключ - стандартное выражение; null отключает кэширование для этого элемента.
+ * В ключ должно входить всё, от чего зависит разметка (версия данных, роль), а сам фрагмент
+ * не должен содержать ничего личного: CSRF-токенов, имени пользователя.
+ * Диалект идёт после стандартного, поэтому th:each, th:if и th:object того же элемента
+ * уже применены, когда вычисляется ключ.
+ */
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+    public static final String PREFIX = "cache";
+
+    private final FragmentCache fragmentCache;
+
+    public FragmentCacheDialect(FragmentCache fragmentCache) {
+        super("Fragment Cache", PREFIX, StandardDialect.PROCESSOR_PRECEDENCE + 100);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        // xmlns:cache убирается из вывода, как xmlns:th у стандартного диалекта
+        return Set.of(new CachedFragmentProcessor(dialectPrefix, fragmentCache),
+                new StandardXmlNsTagProcessor(TemplateMode.HTML, dialectPrefix));
+    }
+}
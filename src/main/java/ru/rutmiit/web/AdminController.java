@@ -6,13 +6,16 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import ru.rutmiit.services.LiveStatisticsService;
 
 @Slf4j
 @Controller
 @RequestMapping("/admin")
 @RequiredArgsConstructor
 public class AdminController {
-    
+
+    private final LiveStatisticsService liveStatisticsService;
+
     // Панель администратора
     @GetMapping("/dashboard")
     public String adminDashboard(Model model) {
@@ -27,10 +30,11 @@ public class AdminController {
         return "admin-users";
     }
     
-    // Статистика системы
+    // Статистика системы: счётчики в памяти, без запросов к базе
     @GetMapping("/statistics")
     public String systemStatistics(Model model) {
         log.debug("Статистика системы");
+        model.addAttribute("stats", liveStatisticsService.snapshot());
         return "admin-statistics";
     }
 }
\ No newline at end of file
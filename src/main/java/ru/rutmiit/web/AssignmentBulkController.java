@@ -0,0 +1,67 @@
+package ru.rutmiit.web;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.rutmiit.dto.BulkExtendDeadlineDto;
+import ru.rutmiit.dto.BulkOperationProgressDto;
+import ru.rutmiit.dto.BulkOperationResultDto;
+import ru.rutmiit.dto.BulkStudentsDto;
+import ru.rutmiit.services.AssignmentBulkService;
+import ru.rutmiit.services.BulkOperationTracker;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * JSON API массовых операций преподавателя над заданиями.
+ * Клиент может передать свой идентификатор операции в заголовке X-Operation-Id,
+ * чтобы параллельно опрашивать ход выполнения.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/assignments/bulk")
+@RequiredArgsConstructor
+public class AssignmentBulkController {
+
+    private static final String OPERATION_ID_HEADER = "X-Operation-Id";
+
+    private final AssignmentBulkService assignmentBulkService;
+    private final BulkOperationTracker operationTracker;
+
+    @PostMapping("/assign")
+    public BulkOperationResultDto assignStudents(@Valid @RequestBody BulkStudentsDto dto,
+                                                 @RequestHeader(value = OPERATION_ID_HEADER, required = false) String operationId,
+                                                 Principal principal) {
+        return assignmentBulkService.assignStudents(dto, principal.getName(), operationId(operationId));
+    }
+
+    @PostMapping("/unassign")
+    public BulkOperationResultDto unassignStudents(@Valid @RequestBody BulkStudentsDto dto,
+                                                   @RequestHeader(value = OPERATION_ID_HEADER, required = false) String operationId,
+                                                   Principal principal) {
+        return assignmentBulkService.unassignStudents(dto, principal.getName(), operationId(operationId));
+    }
+
+    @PostMapping("/extend-deadline")
+    public BulkOperationResultDto extendDeadline(@Valid @RequestBody BulkExtendDeadlineDto dto,
+                                                 @RequestHeader(value = OPERATION_ID_HEADER, required = false) String operationId,
+                                                 Principal principal) {
+        return assignmentBulkService.extendDeadlines(dto, principal.getName(), operationId(operationId));
+    }
+
+    @GetMapping("/operations/{operationId}")
+    public ResponseEntity<BulkOperationProgressDto> operationProgress(@PathVariable("operationId") String operationId,
+                                                                      Principal principal) {
+        return operationTracker.find(operationId)
+                .filter(progress -> progress.getOwner().equals(principal.getName()))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static String operationId(String requested) {
+        return requested != null && !requested.isBlank() ? requested : UUID.randomUUID().toString();
+    }
+}
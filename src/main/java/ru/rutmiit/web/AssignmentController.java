@@ -1,18 +1,20 @@
 package ru.rutmiit.web;
 
 import ru.rutmiit.dto.CreateAssignmentDto;
+import ru.rutmiit.dto.PageVersionDto;
 import ru.rutmiit.dto.ShowAssignmentDto;
 import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
-import ru.rutmiit.models.entities.User;
 import ru.rutmiit.services.AssignmentService;
 import ru.rutmiit.services.UserService;
+import ru.rutmiit.utils.http.ConditionalGet;
+import ru.rutmiit.utils.pagination.AssignmentSortKey;
+import ru.rutmiit.utils.pagination.KeysetSlice;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -20,7 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Slf4j
 @Controller
@@ -37,25 +40,31 @@ public class AssignmentController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "deadline") String sortBy,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) String search,
             Model model) {
 
-        log.debug("Отображение списка заданий: страница={}, размер={}, поиск={}", page, size, search);
+        log.debug("Отображение списка заданий: страница={}, размер={}, курсор={}, поиск={}", page, size, cursor, search);
 
         if (search != null && !search.trim().isEmpty()) {
-            // Режим поиска
-            List<ShowAssignmentDto> assignments = assignmentService.searchAssignments(search);
-            model.addAttribute("assignments", assignments);
+            // Режим поиска: результаты по релевантности, постранично
+            Page<ShowAssignmentDto> results = assignmentService.searchAssignments(search, page, size);
+            model.addAttribute("assignments", results.getContent());
             model.addAttribute("search", search);
+            model.addAttribute("searchPage", results.getNumber());
+            model.addAttribute("searchTotalPages", results.getTotalPages());
+            model.addAttribute("size", results.getSize());
         } else {
-            // Режим пагинации
-            Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).ascending());
-            Page<ShowAssignmentDto> assignmentPage = assignmentService.getAllAssignmentsPaginated(pageable);
-
-            model.addAttribute("assignments", assignmentPage.getContent());
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", assignmentPage.getTotalPages());
-            model.addAttribute("totalItems", assignmentPage.getTotalElements());
+            // Режим пагинации: первые страницы по номеру, дальше по курсору
+            AssignmentSortKey sortKey = AssignmentSortKey.fromParam(sortBy);
+            KeysetSlice<ShowAssignmentDto> slice;
+            try {
+                slice = assignmentService.getAllAssignmentsPaginated(sortKey, page, cursor, size);
+            } catch (IllegalArgumentException e) {
+                log.warn("Некорректный курсор страницы: {}", cursor);
+                return "redirect:/assignments/all";
+            }
+            addSliceAttributes(model, slice, sortKey, page, cursor, size);
         }
 
         return "assignment-list";
@@ -63,8 +72,14 @@ public class AssignmentController {
 
     // Детальная информация о задании
     @GetMapping("/details/{id}")
-    public String assignmentDetails(@PathVariable("id") String id, Model model) {
+    public String assignmentDetails(@PathVariable("id") String id, Model model,
+                                    HttpServletRequest request, HttpServletResponse response) {
         log.debug("Запрос деталей задания: {}", id);
+        // Страница не менялась - 304 до загрузки задания и рендеринга
+        Optional<LocalDateTime> version = assignmentService.getDetailsVersion(id);
+        if (version.isPresent() && ConditionalGet.checkNotModified(request, response, version.get())) {
+            return null;
+        }
         try {
             Object assignmentDetails = assignmentService.getAssignmentDetails(id);
             model.addAttribute("assignment", assignmentDetails);
@@ -80,12 +95,14 @@ public class AssignmentController {
     public String showAddAssignmentForm(Model model, Principal principal) {
         log.debug("Отображение формы добавления задания");
 
-        // Загружаем список студентов для выбора
-        List<User> students = userService.getAllStudents();
-        model.addAttribute("students", students);
+        // После ошибки валидации форма приходит во flash-атрибутах и не должна перетираться
+        if (!model.containsAttribute("assignmentModel")) {
+            model.addAttribute("assignmentModel", new CreateAssignmentDto());
+        }
 
-        // ВАЖНО: Добавить пустой объект DTO в модель
-        model.addAttribute("assignmentModel", new CreateAssignmentDto());
+        // Студенты подбираются через /api/students/search; здесь - только подписи уже выбранных
+        CreateAssignmentDto form = (CreateAssignmentDto) model.getAttribute("assignmentModel");
+        model.addAttribute("selectedStudents", userService.findStudentInfos(form.getStudentIds()));
 
         return "assignment-add";
     }
@@ -141,16 +158,39 @@ public class AssignmentController {
     // Страница для студентов - мои задания
     @GetMapping("/my")
     public String showMyAssignments(Principal principal, Model model,
-                                    @RequestParam(defaultValue = "0") int page) {
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "10") int size,
+                                    @RequestParam(defaultValue = "deadline") String sortBy,
+                                    @RequestParam(required = false) String cursor,
+                                    HttpServletRequest request, HttpServletResponse response) {
         log.debug("Отображение заданий студента: {}", principal.getName());
 
-        Pageable pageable = PageRequest.of(page, 10);
-        Page<ShowAssignmentDto> myAssignments = assignmentService.getAssignmentsForStudent(principal.getName(), pageable);
+        PageVersionDto version = assignmentService.getStudentAssignmentsVersion(principal.getName());
+        if (ConditionalGet.checkNotModified(request, response, version.getLastModified(), version.getCount())) {
+            return null;
+        }
 
-        model.addAttribute("assignments", myAssignments.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", myAssignments.getTotalPages());
+        AssignmentSortKey sortKey = AssignmentSortKey.fromParam(sortBy);
+        KeysetSlice<ShowAssignmentDto> myAssignments;
+        try {
+            myAssignments = assignmentService.getAssignmentsForStudent(principal.getName(), sortKey, page, cursor, size);
+        } catch (IllegalArgumentException e) {
+            log.warn("Некорректный курсор страницы: {}", cursor);
+            return "redirect:/assignments/my";
+        }
+        addSliceAttributes(model, myAssignments, sortKey, page, cursor, size);
 
         return "assignment-my";
     }
+
+    private void addSliceAttributes(Model model, KeysetSlice<ShowAssignmentDto> slice, AssignmentSortKey sortKey,
+                                    int page, String cursor, int size) {
+        model.addAttribute("assignments", slice.content());
+        model.addAttribute("hasNext", slice.hasNext());
+        model.addAttribute("nextCursor", slice.nextCursor());
+        model.addAttribute("sortBy", sortKey.getProperty());
+        model.addAttribute("size", AssignmentService.clampPageSize(size));
+        // Номер страницы имеет смысл только для OFFSET-режима
+        model.addAttribute("currentPage", cursor == null || cursor.isBlank() ? AssignmentService.clampOffsetPage(page) : null);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package ru.rutmiit.web;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -10,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import ru.rutmiit.dto.UserRegistrationDto;
 import ru.rutmiit.models.entities.User;
+import ru.rutmiit.models.exceptions.PasswordHashingRejectedException;
 import ru.rutmiit.services.AuthService;
 
 import java.security.Principal;
@@ -95,4 +99,15 @@ public class AuthController {
 
         return "profile";
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleHashingRejected(PasswordHashingRejectedException e, HttpServletResponse response, Model model) {
+        log.warn("Регистрация отклонена: {}", e.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        model.addAttribute("errorCode", HttpStatus.SERVICE_UNAVAILABLE.value());
+        model.addAttribute("errorTitle", "Сервис перегружен");
+        model.addAttribute("errorMessage", e.getMessage());
+        return "error/custom-error";
+    }
+}
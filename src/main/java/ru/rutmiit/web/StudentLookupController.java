@@ -0,0 +1,29 @@
+package ru.rutmiit.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.rutmiit.dto.StudentInfoDto;
+import ru.rutmiit.services.UserService;
+
+import java.util.List;
+
+/**
+ * Подсказки для выбора студентов в форме задания: форма не загружает весь список,
+ * а запрашивает несколько совпадений по мере ввода.
+ */
+@RestController
+@RequestMapping("/api/students")
+@RequiredArgsConstructor
+public class StudentLookupController {
+
+    private final UserService userService;
+
+    @GetMapping("/search")
+    public List<StudentInfoDto> search(@RequestParam("q") String query,
+                                       @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return userService.searchStudents(query, limit);
+    }
+}
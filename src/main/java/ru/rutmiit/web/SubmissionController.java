@@ -1,12 +1,21 @@
 package ru.rutmiit.web;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
-import org.springframework.web.multipart.MultipartFile;
 import ru.rutmiit.dto.SubmitAssignmentDto;
-import ru.rutmiit.services.FileStorageService;
+import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
+import ru.rutmiit.models.exceptions.AttachmentNotFoundException;
+import ru.rutmiit.services.AttachmentDownloadService;
+import ru.rutmiit.services.ChunkedUploadService;
+import ru.rutmiit.services.GradebookExportService;
+import ru.rutmiit.services.StudentGradebookService;
 import ru.rutmiit.services.SubmissionService;
+import ru.rutmiit.utils.http.RangeFileSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -15,6 +24,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import ru.rutmiit.dto.SubmitAssignmentDto;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 
 @Slf4j
@@ -24,7 +38,10 @@ import java.security.Principal;
 public class SubmissionController {
     
     private final SubmissionService submissionService;
-    private final FileStorageService fileStorageService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final GradebookExportService gradebookExportService;
+    private final AttachmentDownloadService attachmentDownloadService;
+    private final StudentGradebookService studentGradebookService;
     
     // Форма сдачи задания
     @GetMapping("/submit/{assignmentId}")
@@ -50,7 +67,6 @@ public class SubmissionController {
             @PathVariable String assignmentId,
             @Valid SubmitAssignmentDto submitDto,
             BindingResult bindingResult,
-            @RequestParam(value = "attachment", required = false) MultipartFile file, // Добавьте этот параметр
             Principal principal,
             RedirectAttributes redirectAttributes,
             Model model) {
@@ -63,13 +79,16 @@ public class SubmissionController {
             return "redirect:/submissions/submit/" + assignmentId;
         }
 
-        // Сохраните файл
-        if (file != null && !file.isEmpty()) {
-            String fileUrl = fileStorageService.storeFile(file);
-            submitDto.setAttachmentUrl(fileUrl);
-        }
         try {
+            // Файл уже загружен по частям через /api/uploads, здесь только забираем его
+            boolean hasUpload = submitDto.getUploadId() != null && !submitDto.getUploadId().isBlank();
+            submitDto.setAttachmentUrl(hasUpload
+                    ? chunkedUploadService.completedFileName(submitDto.getUploadId(), principal.getName())
+                    : null);
             submissionService.submitAssignment(assignmentId, principal.getName(), submitDto);
+            if (hasUpload) {
+                chunkedUploadService.claim(submitDto.getUploadId(), principal.getName());
+            }
             redirectAttributes.addFlashAttribute("successMessage", 
                 "Задание успешно сдано!");
         } catch (Exception e) {
@@ -83,16 +102,66 @@ public class SubmissionController {
     
     // Просмотр оценок
     @GetMapping("/grades")
-    public String viewGrades(Principal principal, Model model) {
+    public String viewGrades(@RequestParam(value = "page", defaultValue = "0") int page,
+                             @RequestParam(value = "size", defaultValue = "20") int size,
+                             Principal principal, Model model) {
         log.debug("Отображение оценок студента: {}", principal.getName());
         
         try {
-            Object grades = submissionService.getStudentGrades(principal.getName());
-            model.addAttribute("grades", grades);
+            model.addAttribute("summary", studentGradebookService.getSummary(principal.getName()));
+            model.addAttribute("grades", studentGradebookService.getRows(principal.getName(), page, size));
             return "submission-grades";
         } catch (Exception e) {
             model.addAttribute("errorMessage", "Ошибка при загрузке оценок");
             return "redirect:/assignments/my";
         }
     }
+
+    // Скачивание вложения сдачи: Range, ETag/Last-Modified, sendfile
+    @GetMapping("/{submissionId}/attachment")
+    public void downloadAttachment(@PathVariable("submissionId") String submissionId,
+                                   Principal principal,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        AttachmentDownloadService.Attachment attachment =
+                attachmentDownloadService.findAttachment(submissionId, principal.getName());
+        RangeFileSender.send(request, response, attachment.file(), attachment.downloadName());
+    }
+
+    @ExceptionHandler(AttachmentNotFoundException.class)
+    public void handleAttachmentNotFound(AttachmentNotFoundException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(AssignmentNotFoundException.class)
+    public void handleAssignmentNotFound(AssignmentNotFoundException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+    }
+
+    // Выгрузка журнала оценок по заданию (CSV, потоком)
+    @GetMapping("/export/assignment/{assignmentId}")
+    public void exportAssignmentGradebook(@PathVariable("assignmentId") String assignmentId,
+                                          Principal principal,
+                                          HttpServletResponse response) throws IOException {
+        log.debug("Выгрузка журнала задания {} преподавателем {}", assignmentId, principal.getName());
+        gradebookExportService.exportAssignment(assignmentId, principal.getName(),
+                () -> startCsv(response, "gradebook-" + assignmentId + ".csv"));
+    }
+
+    // Выгрузка журнала оценок по всем заданиям преподавателя
+    @GetMapping("/export/teacher")
+    public void exportTeacherGradebook(Principal principal, HttpServletResponse response) throws IOException {
+        log.debug("Выгрузка журнала преподавателя {}", principal.getName());
+        Writer writer = startCsv(response, "gradebook-" + principal.getName() + ".csv");
+        gradebookExportService.exportTeacher(principal.getName(), writer);
+    }
+
+    private Writer startCsv(HttpServletResponse response, String fileName) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        return new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 16 * 1024);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package ru.rutmiit.web;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.rutmiit.dto.BulkGradeDto;
+import ru.rutmiit.dto.GradeImportReportDto;
+import ru.rutmiit.models.exceptions.AssignmentNotFoundException;
+import ru.rutmiit.services.SubmissionGradingService;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Массовое выставление оценок: JSON-список или CSV-файл по заданию.
+ * В ответе - отчёт по каждой строке; при ошибках оценки не записываются (422).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/submissions/grades")
+@RequiredArgsConstructor
+public class SubmissionGradingController {
+
+    private final SubmissionGradingService submissionGradingService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GradeImportReportDto> gradeAll(@Valid @RequestBody BulkGradeDto dto, Principal principal) {
+        return toResponse(submissionGradingService.gradeAll(dto, principal.getName()));
+    }
+
+    @PostMapping(value = "/import/{assignmentId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<GradeImportReportDto> importCsv(@PathVariable("assignmentId") String assignmentId,
+                                                          @RequestParam("file") MultipartFile file,
+                                                          Principal principal) throws IOException {
+        log.debug("Импорт оценок по заданию {} из файла '{}' ({} байт)", assignmentId, file.getOriginalFilename(), file.getSize());
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return toResponse(submissionGradingService.importCsv(assignmentId, principal.getName(), reader));
+        }
+    }
+
+    @ExceptionHandler(AssignmentNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(AssignmentNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static ResponseEntity<GradeImportReportDto> toResponse(GradeImportReportDto report) {
+        return report.getFailed() > 0
+                ? ResponseEntity.unprocessableEntity().body(report)
+                : ResponseEntity.ok(report);
+    }
+}
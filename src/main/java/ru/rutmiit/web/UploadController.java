@@ -0,0 +1,86 @@
+package ru.rutmiit.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.rutmiit.dto.UploadInitDto;
+import ru.rutmiit.dto.UploadStatusDto;
+import ru.rutmiit.models.exceptions.ChunkChecksumMismatchException;
+import ru.rutmiit.models.exceptions.UploadNotFoundException;
+import ru.rutmiit.services.ChunkedUploadService;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Протокол возобновляемой загрузки: POST - начать, PUT ?offset= - часть файла
+ * (сырое тело application/octet-stream), GET - что уже получено, POST /complete - сверить и сохранить.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    // SHA-256 одной части (hex); части с несовпавшей суммой отклоняются с 422 и отправляются повторно
+    private static final String CHUNK_SHA256_HEADER = "X-Chunk-SHA256";
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadStatusDto> start(@Valid @RequestBody UploadInitDto dto, Principal principal) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.start(dto, principal.getName()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadStatusDto status(@PathVariable("uploadId") String uploadId, Principal principal) {
+        return chunkedUploadService.status(uploadId, principal.getName());
+    }
+
+    // Тело читается напрямую из запроса, поэтому не проходит через multipart-разбор и не спулится на диск
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public UploadStatusDto writeChunk(@PathVariable("uploadId") String uploadId,
+                                      @RequestParam("offset") long offset,
+                                      @RequestHeader(value = CHUNK_SHA256_HEADER, required = false) String chunkSha256,
+                                      HttpServletRequest request,
+                                      Principal principal) throws IOException {
+        return chunkedUploadService.writeChunk(uploadId, principal.getName(), offset, chunkSha256, request.getInputStream());
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public UploadStatusDto complete(@PathVariable("uploadId") String uploadId, Principal principal) throws IOException {
+        return chunkedUploadService.complete(uploadId, principal.getName());
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> cancel(@PathVariable("uploadId") String uploadId, Principal principal) {
+        chunkedUploadService.cancel(uploadId, principal.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(UploadNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(UploadNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ChunkChecksumMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleCorruptedChunk(ChunkChecksumMismatchException e) {
+        return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE assignments ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('russian', coalesce(title, '')), 'A') || setweight(to_tsvector('english', coalesce(title, '')), 'A') || setweight(to_tsvector('russian', coalesce(description, '')), 'B') || setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED;
+CREATE INDEX idx_assignments_search_vector ON assignments USING GIN (search_vector);
+CREATE INDEX idx_assignments_title_trgm ON assignments USING GIN (title gin_trgm_ops);
+CREATE INDEX idx_users_full_name_trgm ON users USING GIN (lower(full_name) gin_trgm_ops);
+CREATE INDEX idx_users_username_trgm ON users USING GIN (lower(username) gin_trgm_ops);